@@ -0,0 +1,338 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.renderer;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.intranda.commons.chart.results.DataTable;
+
+/*************************************************************************************
+ * A BatchRenderer renders many {@link DataTable}s in parallel and writes each 
+ * rendering to its own destination
+ * 
+ * Every {@link Job} brings its own configured {@link IRenderer}, so the render options 
+ * are the ones of this renderer. The jobs run on an {@link ExecutorService}, either 
+ * a fixed pool created by the BatchRenderer or any given one, e.g. a ForkJoinPool 
+ * or an executor with virtual threads. Only as many jobs are started as their 
+ * estimated memory fits into the in-flight limit, the caller of 
+ * {@link #render(Collection)} waits for the rest. A failing job does not stop the 
+ * others, its error is kept in the job.
+ * 
+ * @version 18.10.2026
+ *************************************************************************************/
+public class BatchRenderer {
+	private static final int BYTES_PER_PERMIT = 1024;
+
+	private final ExecutorService executor;
+	private final boolean ownExecutor;
+	private final int maxPermits;
+	private final Semaphore memory;
+	private ProgressListener progressListener = null;
+
+	/*************************************************************************************
+	 * listener informed about every finished job, it is called from the threads of 
+	 * the executor
+	 *************************************************************************************/
+	public interface ProgressListener {
+
+		/**
+		 * @param job
+		 *            the job just finished, successful or not
+		 * @param finishedJobs
+		 *            number of finished jobs of the current batch
+		 * @param totalJobs
+		 *            number of all jobs of the current batch
+		 */
+		public void jobFinished(Job job, int finishedJobs, int totalJobs);
+	}
+
+	/*************************************************************************************
+	 * public constructor with one thread per processor and a quarter of the maximum 
+	 * heap as in-flight limit
+	 *************************************************************************************/
+	public BatchRenderer() {
+		this(Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory() / 4);
+	}
+
+	/*************************************************************************************
+	 * public constructor with an own thread pool, which is stopped by {@link #shutdown()}
+	 * 
+	 * @param threads
+	 *            number of threads to render with
+	 * @param maxInFlightBytes
+	 *            maximum estimated memory of all jobs running at the same time
+	 *************************************************************************************/
+	public BatchRenderer(int threads, long maxInFlightBytes) {
+		this(Executors.newFixedThreadPool(threads), maxInFlightBytes, true);
+	}
+
+	/*************************************************************************************
+	 * public constructor for rendering on a given executor, which is not stopped by 
+	 * {@link #shutdown()}
+	 * 
+	 * @param executor
+	 *            the executor to render on
+	 * @param maxInFlightBytes
+	 *            maximum estimated memory of all jobs running at the same time
+	 *************************************************************************************/
+	public BatchRenderer(ExecutorService executor, long maxInFlightBytes) {
+		this(executor, maxInFlightBytes, false);
+	}
+
+	private BatchRenderer(ExecutorService executor, long maxInFlightBytes, boolean ownExecutor) {
+		if (maxInFlightBytes < BYTES_PER_PERMIT) {
+			throw new IllegalArgumentException("The in-flight limit must be at least " + BYTES_PER_PERMIT + " bytes: " + maxInFlightBytes);
+		}
+		this.executor = executor;
+		this.ownExecutor = ownExecutor;
+		this.maxPermits = (int) Math.min(Integer.MAX_VALUE, maxInFlightBytes / BYTES_PER_PERMIT);
+		this.memory = new Semaphore(maxPermits, true);
+	}
+
+	/*************************************************************************************
+	 * render all jobs and wait until all of them are finished
+	 * 
+	 * @param jobs
+	 *            the jobs to render, each with its own renderer
+	 * @return the failed jobs, empty if all jobs were successful
+	 * @throws InterruptedException
+	 *             if the calling thread is interrupted while waiting, jobs already 
+	 *             started are finished nevertheless
+	 *************************************************************************************/
+	public List<Job> render(Collection<Job> jobs) throws InterruptedException {
+		final int totalJobs = jobs.size();
+		final CountDownLatch unfinished = new CountDownLatch(totalJobs);
+		final AtomicInteger finished = new AtomicInteger();
+		for (final Job job : jobs) {
+			final int permits = getPermits(job);
+			memory.acquire(permits);
+			Runnable task = new Runnable() {
+				public void run() {
+					try {
+						job.run();
+					} finally {
+						memory.release(permits);
+						jobFinished(job, finished.incrementAndGet(), totalJobs, unfinished);
+					}
+				}
+			};
+			try {
+				executor.execute(task);
+			} catch (RejectedExecutionException e) {
+				job.error = e;
+				memory.release(permits);
+				jobFinished(job, finished.incrementAndGet(), totalJobs, unfinished);
+			}
+		}
+		unfinished.await();
+
+		List<Job> failed = new ArrayList<Job>();
+		for (Job job : jobs) {
+			if (job.getError() != null) {
+				failed.add(job);
+			}
+		}
+		return failed;
+	}
+
+	private void jobFinished(Job job, int finishedJobs, int totalJobs, CountDownLatch unfinished) {
+		try {
+			ProgressListener listener = progressListener;
+			if (listener != null) {
+				listener.jobFinished(job, finishedJobs, totalJobs);
+			}
+		} finally {
+			unfinished.countDown();
+		}
+	}
+
+	private int getPermits(Job job) {
+		long permits = (job.getEstimatedBytes() + BYTES_PER_PERMIT - 1) / BYTES_PER_PERMIT;
+		/* a job larger than the limit runs alone */
+		return (int) Math.max(1, Math.min(maxPermits, permits));
+	}
+
+	/*************************************************************************************
+	 * stop the thread pool created by this BatchRenderer, a given executor is left 
+	 * running
+	 *************************************************************************************/
+	public void shutdown() {
+		if (ownExecutor) {
+			executor.shutdown();
+		}
+	}
+
+	/*************************************************************************************
+	 * setter for the progress listener
+	 * 
+	 * @param progressListener
+	 *            the {@link ProgressListener} or null
+	 *************************************************************************************/
+	public void setProgressListener(ProgressListener progressListener) {
+		this.progressListener = progressListener;
+	}
+
+	/*************************************************************************************
+	 * getter for the progress listener
+	 * 
+	 * @return the {@link ProgressListener} or null
+	 *************************************************************************************/
+	public ProgressListener getProgressListener() {
+		return progressListener;
+	}
+
+	/*************************************************************************************
+	 * A Job of a {@link BatchRenderer}: a renderer with its {@link DataTable} and options 
+	 * and the destination to write the rendering to, images as PNG and text as UTF-8
+	 * 
+	 * The renderer must not be used by other jobs or threads while the job runs.
+	 *************************************************************************************/
+	public static class Job {
+		private final IRenderer renderer;
+		private final File file;
+		private final OutputStream stream;
+		private long estimatedBytes;
+		private volatile Throwable error = null;
+
+		/*************************************************************************************
+		 * public constructor for writing to a file
+		 * 
+		 * @param table
+		 *            the {@link DataTable} to render, it is set in the renderer
+		 * @param renderer
+		 *            the renderer with all options set
+		 * @param file
+		 *            the file to write, it is overwritten
+		 *************************************************************************************/
+		public Job(DataTable table, IRenderer renderer, File file) {
+			this(table, renderer, file, null);
+		}
+
+		/*************************************************************************************
+		 * public constructor for writing to a stream
+		 * 
+		 * @param table
+		 *            the {@link DataTable} to render, it is set in the renderer
+		 * @param renderer
+		 *            the renderer with all options set
+		 * @param stream
+		 *            the stream to write to, it is flushed but not closed
+		 *************************************************************************************/
+		public Job(DataTable table, IRenderer renderer, OutputStream stream) {
+			this(table, renderer, null, stream);
+		}
+
+		private Job(DataTable table, IRenderer renderer, File file, OutputStream stream) {
+			renderer.setDataTable(table);
+			this.renderer = renderer;
+			this.file = file;
+			this.stream = stream;
+			this.estimatedBytes = estimateBytes(renderer);
+		}
+
+		private static long estimateBytes(IRenderer renderer) {
+			/* the raster is the big part of an image rendering */
+			if (renderer instanceof ChartRenderer) {
+				return 4L * ((ChartRenderer) renderer).getWidth() * ((ChartRenderer) renderer).getHeight();
+			}
+			if (renderer instanceof PieChartRenderer) {
+				return 4L * ((PieChartRenderer) renderer).getWidth() * ((PieChartRenderer) renderer).getHeight();
+			}
+			return BYTES_PER_PERMIT;
+		}
+
+		void run() {
+			try {
+				if (file != null) {
+					OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 65536);
+					try {
+						renderer.renderTo(out);
+					} finally {
+						out.close();
+					}
+				} else {
+					renderer.renderTo(stream);
+				}
+			} catch (Throwable t) {
+				error = t;
+			}
+		}
+
+		/*************************************************************************************
+		 * getter for the renderer
+		 * 
+		 * @return the {@link IRenderer}
+		 *************************************************************************************/
+		public IRenderer getRenderer() {
+			return renderer;
+		}
+
+		/*************************************************************************************
+		 * getter for the destination file
+		 * 
+		 * @return the file or null if the job writes to a stream
+		 *************************************************************************************/
+		public File getFile() {
+			return file;
+		}
+
+		/*************************************************************************************
+		 * getter for the memory estimated for running this job, by default the size of 
+		 * the raster of image renderers
+		 * 
+		 * @return estimated number of bytes
+		 *************************************************************************************/
+		public long getEstimatedBytes() {
+			return estimatedBytes;
+		}
+
+		/*************************************************************************************
+		 * setter for the memory needed for running this job
+		 * 
+		 * @param estimatedBytes
+		 *            estimated number of bytes
+		 *************************************************************************************/
+		public void setEstimatedBytes(long estimatedBytes) {
+			this.estimatedBytes = estimatedBytes;
+		}
+
+		/*************************************************************************************
+		 * getter for the error of a failed job
+		 * 
+		 * @return the error or null if the job was successful or did not run yet
+		 *************************************************************************************/
+		public Throwable getError() {
+			return error;
+		}
+	}
+}
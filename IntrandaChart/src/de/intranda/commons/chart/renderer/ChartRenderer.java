@@ -23,10 +23,21 @@ package de.intranda.commons.chart.renderer;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import de.intranda.commons.chart.results.ChartDraw;
+import de.intranda.commons.chart.results.ChartLayout;
+import de.intranda.commons.chart.results.ChartTheme;
+import de.intranda.commons.chart.results.DataRow;
 import de.intranda.commons.chart.results.DataTable;
+import de.intranda.commons.chart.results.LiveChart;
+import de.intranda.commons.chart.results.ChartDraw.Aggregation;
 import de.intranda.commons.chart.results.ChartDraw.ChartType;
 import de.intranda.commons.chart.results.ChartDraw.PointStyle;
 
@@ -38,20 +49,43 @@ import de.intranda.commons.chart.results.ChartDraw.PointStyle;
  * @version 01.12.2009
  *************************************************************************************/
 public class ChartRenderer implements IRenderer {
+	private static final int TILE_SIZE = 1024;
+	// pixels of the RGB buffer charts with indexed colors are painted in
+	private static final int INDEXED_BAND_PIXELS = 256 * 1024;
+
 	private DataTable myDataTable;
 	private int width = 1024;
 	private int height = 800;
 	private boolean showMeanValues = false;
 	private ChartType chartType = null;
 	private PointStyle pointStyle = null;
+	private Aggregation barAggregation = Aggregation.MAX;
 	private List<Color> colors = null;
+	private ChartTheme theme = null;
+	private boolean indexedColors = false;
+	private RenderCache renderCache = null;
+	private PngEncoder pngEncoder = new PngEncoder();
+	private ImagePool imagePool = null;
+	private ExecutorService tileExecutor = null;
+	// layout of the last rendering, reused while table and settings are unchanged
+	private ChartLayout layout = null;
+	private Object[] layoutSettings = null;
+	// kept chart of the live mode and the settings it was created with
+	private boolean live = false;
+	private LiveChart liveChart = null;
+	private Object[] liveSettings = null;
 
 	public void setDataTable(DataTable inDataTable) {
 		myDataTable = inDataTable;
 	}
 
 	/*************************************************************************************
-	 * get rendered chart as {@link BufferedImage}
+	 * get rendered chart as {@link BufferedImage}, if an {@link ImagePool} is set the 
+	 * image is taken from the pool and should be given back with 
+	 * {@link ImagePool#release(BufferedImage)} when it is not needed anymore; with 
+	 * indexed colors the image is of type {@link BufferedImage#TYPE_BYTE_INDEXED} with 
+	 * the palette of the {@link ChartTheme}; in live mode it is always the same image, 
+	 * which is painted again by the next call
 	 * 
 	 * @return BufferedImage with chart
 	 *************************************************************************************/
@@ -64,16 +98,141 @@ public class ChartRenderer implements IRenderer {
 			return new BufferedImage(1, 1, BufferedImage.TRANSLUCENT);
 		}
 
-		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		if (live) {
+			return getLiveRendering();
+		}
+
+		IndexColorModel palette = null;
+		if (indexedColors) {
+			palette = (theme == null ? ChartTheme.DEFAULT : theme).getIndexColorModel();
+		}
+		BufferedImage image;
+		if (imagePool != null) {
+			image = imagePool.checkout(width, height, palette);
+		} else if (palette != null) {
+			image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED, palette);
+		} else {
+			image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		}
 		Graphics2D g2d = image.createGraphics();
 		g2d.setRenderingHint(java.awt.RenderingHints.KEY_ANTIALIASING, java.awt.RenderingHints.VALUE_ANTIALIAS_ON);
 
-		ChartDraw chartDraw = new ChartDraw(myDataTable, g2d, width, height, chartType, pointStyle, colors);
+		ChartDraw chartDraw = new ChartDraw(myDataTable, g2d, width, height, chartType, pointStyle, null);
+		if (theme != null) {
+			chartDraw.setTheme(theme);
+		}
 		chartDraw.showAllMeanValues(showMeanValues);
-		chartDraw.paint();
+		chartDraw.setBarAggregation(barAggregation);
+		Object[] settings = { myDataTable, myDataTable.getModificationCount(), width, height, chartType, barAggregation, showMeanValues,
+				g2d.getFont() };
+		if (Arrays.equals(settings, layoutSettings)) {
+			chartDraw.setLayout(layout);
+		} else {
+			layout = chartDraw.getLayout();
+			layoutSettings = settings;
+		}
+		if (palette != null) {
+			int bandHeight = Math.max(1, Math.min(height, INDEXED_BAND_PIXELS / width));
+			BufferedImage buffer = imagePool != null ? imagePool.checkout(width, bandHeight) : new BufferedImage(width, bandHeight,
+					BufferedImage.TYPE_INT_RGB);
+			chartDraw.paintIndexed(image, buffer);
+			if (imagePool != null) {
+				imagePool.release(buffer);
+			}
+		} else if (tileExecutor != null && (width > TILE_SIZE || height > TILE_SIZE)) {
+			chartDraw.paint(image, tileExecutor, TILE_SIZE);
+		} else {
+			chartDraw.paint();
+		}
+		g2d.dispose();
 		return image;
 	}
 
+	/*************************************************************************************
+	 * paint only what changed since the last rendering into the kept image
+	 * 
+	 * @return the image of the {@link LiveChart}
+	 *************************************************************************************/
+	private BufferedImage getLiveRendering() {
+		Object[] settings = { myDataTable, width, height, chartType, pointStyle, theme, barAggregation };
+		if (liveChart == null || !Arrays.equals(settings, liveSettings)) {
+			liveChart = new LiveChart(myDataTable, width, height, chartType, pointStyle, theme);
+			liveChart.setBarAggregation(barAggregation);
+			liveSettings = settings;
+		}
+		for (DataRow row : myDataTable.getDataRows()) {
+			row.setShowMeanValue(showMeanValues);
+		}
+		liveChart.update();
+		return liveChart.getImage();
+	}
+
+	/*************************************************************************************
+	 * write rendered chart as PNG to the given stream, from the 
+	 * {@link RenderCache} if one is set
+	 * 
+	 * @param out the stream to write to, it is flushed but not closed
+	 * @throws IOException
+	 *************************************************************************************/
+	public void renderTo(OutputStream out) throws IOException {
+		if (myDataTable == null) {
+			throw new IllegalStateException("No DataTable set. No rendering possible.");
+		}
+		if (renderCache == null) {
+			writePng(out);
+		} else {
+			RenderCache.Key key = RenderCache.createKey(getDataTable(), getClass(), width, height, chartType, pointStyle, theme, showMeanValues,
+					barAggregation, indexedColors, pngEncoder.getCompressionLevel(), pngEncoder.getFilter());
+			byte[] png = renderCache.get(key);
+			if (png == null) {
+				ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+				writePng(buffer);
+				png = buffer.toByteArray();
+				renderCache.put(key, png);
+			}
+			out.write(png);
+		}
+		out.flush();
+	}
+
+	private void writePng(OutputStream out) throws IOException {
+		BufferedImage image = (BufferedImage) getRendering();
+		try {
+			pngEncoder.encode(image, out);
+		} finally {
+			if (imagePool != null && !live) {
+				imagePool.release(image);
+			}
+		}
+	}
+
+	/*************************************************************************************
+	 * charts are images, they cannot be rendered as text
+	 * 
+	 * @throws UnsupportedOperationException always
+	 *************************************************************************************/
+	public void renderTo(Appendable out) {
+		throw new UnsupportedOperationException("ChartRenderer creates images, use renderTo(OutputStream).");
+	}
+
+	/*************************************************************************************
+	 * getter for image width
+	 * 
+	 * @return width of the image
+	 *************************************************************************************/
+	public int getWidth() {
+		return width;
+	}
+
+	/*************************************************************************************
+	 * getter for image height
+	 * 
+	 * @return height of the image
+	 *************************************************************************************/
+	public int getHeight() {
+		return height;
+	}
+
 	/*************************************************************************************
 	 * setter for image size
 	 * 
@@ -148,6 +307,25 @@ public class ChartRenderer implements IRenderer {
 		this.pointStyle = pointStyle;
 	}
 
+	/*************************************************************************************
+	 * getter for barAggregation
+	 * 
+	 * @return {@link Aggregation} of bar charts with more columns than pixels
+	 *************************************************************************************/
+	public Aggregation getBarAggregation() {
+		return barAggregation;
+	}
+
+	/*************************************************************************************
+	 * setter for barAggregation, bar charts with more columns than pixels show one bar 
+	 * for each group of adjacent columns
+	 * 
+	 * @param barAggregation the Aggregation to set, null to paint each column
+	 *************************************************************************************/
+	public void setBarAggregation(Aggregation barAggregation) {
+		this.barAggregation = barAggregation;
+	}
+
 	/*************************************************************************************
 	 * getter for colors
 	 * 
@@ -158,11 +336,175 @@ public class ChartRenderer implements IRenderer {
 	}
 
 	/*************************************************************************************
-	 * setter for colors
+	 * setter for colors, the colors are taken over into a {@link ChartTheme} with the 
+	 * default strokes, later changes of the list have no effect
 	 * 
 	 * @param colors the List<Color to set
 	 *************************************************************************************/
 	public void setColors(List<Color> colors) {
 		this.colors = colors;
+		if (colors == null || colors.isEmpty()) {
+			theme = null;
+		} else {
+			theme = new ChartTheme(colors);
+		}
+	}
+
+	/*************************************************************************************
+	 * getter for theme
+	 * 
+	 * @return the {@link ChartTheme} or null for the default theme
+	 *************************************************************************************/
+	public ChartTheme getTheme() {
+		return theme;
+	}
+
+	/*************************************************************************************
+	 * setter for theme, one theme can be shared by many renderers
+	 * 
+	 * @param theme the {@link ChartTheme} with colors, strokes and font, null for 
+	 *        the default theme
+	 *************************************************************************************/
+	public void setTheme(ChartTheme theme) {
+		this.theme = theme;
+		this.colors = theme == null ? null : theme.getColors();
+	}
+
+	/*************************************************************************************
+	 * getter for indexedColors
+	 * 
+	 * @return true if charts are painted with the palette of the theme
+	 *************************************************************************************/
+	public boolean isIndexedColors() {
+		return indexedColors;
+	}
+
+	/*************************************************************************************
+	 * setter for indexedColors, charts are then painted into images with one byte per 
+	 * pixel with the palette of the {@link ChartTheme} and written as palette PNG; 
+	 * that needs a quarter of the memory and gives smaller files, but the gradients of 
+	 * the bars get visible steps; the chart is painted in bands of 256K pixels into 
+	 * an RGB buffer and a tile executor is not used
+	 * 
+	 * @param indexedColors true for images with indexed colors, false for RGB images
+	 *************************************************************************************/
+	public void setIndexedColors(boolean indexedColors) {
+		this.indexedColors = indexedColors;
+	}
+
+	/*************************************************************************************
+	 * getter for live
+	 * 
+	 * @return true if the renderer keeps its chart and paints only the changes
+	 *************************************************************************************/
+	public boolean isLive() {
+		return live;
+	}
+
+	/*************************************************************************************
+	 * setter for live, in live mode the renderer keeps the image and layout of its 
+	 * chart and each rendering paints only the columns whose values changed as long 
+	 * as the scale and the grid stay the same, see {@link LiveChart}; the image pool, 
+	 * the tile executor and indexed colors are not used in live mode
+	 * 
+	 * @param live true for the live mode
+	 *************************************************************************************/
+	public void setLive(boolean live) {
+		this.live = live;
+		if (!live) {
+			liveChart = null;
+			liveSettings = null;
+		}
+	}
+
+	/*************************************************************************************
+	 * getter for the chart of the live mode
+	 * 
+	 * @return the {@link LiveChart} of the last rendering or null
+	 *************************************************************************************/
+	public LiveChart getLiveChart() {
+		return liveChart;
+	}
+
+	/*************************************************************************************
+	 * getter for the render cache
+	 * 
+	 * @return the {@link RenderCache} or null
+	 *************************************************************************************/
+	public RenderCache getRenderCache() {
+		return renderCache;
+	}
+
+	/*************************************************************************************
+	 * setter for a render cache, renderTo(OutputStream) takes the PNG from this cache 
+	 * if the same chart was rendered before
+	 * 
+	 * @param renderCache
+	 *            the {@link RenderCache} to use, null for none
+	 *************************************************************************************/
+	public void setRenderCache(RenderCache renderCache) {
+		this.renderCache = renderCache;
+	}
+
+	/*************************************************************************************
+	 * getter for the image pool
+	 * 
+	 * @return the {@link ImagePool} or null
+	 *************************************************************************************/
+	public ImagePool getImagePool() {
+		return imagePool;
+	}
+
+	/*************************************************************************************
+	 * setter for an image pool, the images are then taken from this pool instead of
+	 * being created for each rendering; renderTo(OutputStream) gives them back itself
+	 * 
+	 * @param imagePool
+	 *            the {@link ImagePool} to use, null for none
+	 *************************************************************************************/
+	public void setImagePool(ImagePool imagePool) {
+		this.imagePool = imagePool;
+	}
+
+	/*************************************************************************************
+	 * getter for the PNG encoder
+	 * 
+	 * @return the {@link PngEncoder}
+	 *************************************************************************************/
+	public PngEncoder getPngEncoder() {
+		return pngEncoder;
+	}
+
+	/*************************************************************************************
+	 * setter for the PNG encoder used by renderTo(OutputStream)
+	 * 
+	 * @param pngEncoder
+	 *            the {@link PngEncoder} to use
+	 *************************************************************************************/
+	public void setPngEncoder(PngEncoder pngEncoder) {
+		if (pngEncoder == null) {
+			throw new IllegalArgumentException("The PngEncoder must not be null.");
+		}
+		this.pngEncoder = pngEncoder;
+	}
+
+	/*************************************************************************************
+	 * getter for the tile executor
+	 * 
+	 * @return the executor painting the tiles of large charts or null
+	 *************************************************************************************/
+	public ExecutorService getTileExecutor() {
+		return tileExecutor;
+	}
+
+	/*************************************************************************************
+	 * setter for an executor to paint charts larger than 1024 pixels in tiles on several 
+	 * threads, without one each chart is painted by the calling thread
+	 * 
+	 * @param tileExecutor
+	 *            the executor or null
+	 *************************************************************************************/
+	public void setTileExecutor(ExecutorService tileExecutor) {
+		this.tileExecutor = tileExecutor;
 	}
 }
@@ -20,6 +20,9 @@
  */
 package de.intranda.commons.chart.renderer;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 import de.intranda.commons.chart.results.DataRow;
 import de.intranda.commons.chart.results.DataTable;
 
@@ -38,20 +41,29 @@ public class HtmlTableRenderer implements IRenderer {
 	}
 
 	public Object getRendering() {
+		return Util.renderText(this);
+	}
+
+	public void renderTo(OutputStream out) throws IOException {
+		Util.renderTextTo(this, out);
+	}
+
+	public void renderTo(Appendable sb) throws IOException {
 		/* --------------------------------
 		 * datatalbe is null
 		 * --------------------------------*/
 		if (myDataTable == null) {
-			return ("<p>DataTable is null</p>");
+			sb.append("<p>DataTable is null</p>");
+			return;
 		}
 		/* --------------------------------
 		 * datatalbe is empty
 		 * --------------------------------*/
 		if (myDataTable.getDataRows().size() == 0) {
-			return ("<p>DataTable " + myDataTable.getName() + " - " + myDataTable.getSubname() + " has no rows</p>");
+			sb.append("<p>DataTable ").append(myDataTable.getName()).append(" - ").append(myDataTable.getSubname()).append(" has no rows</p>");
+			return;
 		}
 
-		StringBuilder sb = new StringBuilder();
 		sb.append("<table cellpadding=\"1px\" cellspacing=\"1px\" class=\"standardTable\">");
 
 		/* --------------------------------
@@ -76,6 +88,7 @@ public class HtmlTableRenderer implements IRenderer {
 		/* --------------------------------
 		 * write each row
 		 * --------------------------------*/
+		NumberFormatter formatter = NumberFormatter.getInstance(pattern);
 		for (DataRow row : myDataTable.getDataRows()) {
 			sb.append("<tr class=\"standardTable_Row1\">");
 			sb.append("<td class=\"standardTable_Column\">");
@@ -84,15 +97,13 @@ public class HtmlTableRenderer implements IRenderer {
 
 			for (int i = 0; i < row.getNumberValues(); i++) {
 				sb.append("<td class=\"standardTable_ColumnRight\">");
-				sb.append(Util.roundAsString(row.getValue(i), pattern));
+				formatter.appendTo(sb, row.getDouble(i));
 				sb.append("</td>");
 			}
 
 			sb.append("</tr>");
 		}
 		sb.append("</table>");
-
-		return sb.toString();
 	}
 
 	/*************************************************************************************
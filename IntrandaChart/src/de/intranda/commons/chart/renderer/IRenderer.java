@@ -20,6 +20,9 @@
  */
 package de.intranda.commons.chart.renderer;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 import de.intranda.commons.chart.results.DataTable;
 
 /*************************************************************************************
@@ -46,6 +49,30 @@ public interface IRenderer {
 	 */
 	public Object getRendering();
 
+	/**
+	 * write the rendering of a text renderer directly to the given target without
+	 * building the complete text in memory first
+	 * 
+	 * @param out
+	 *            the target to append the text to
+	 * @throws IOException
+	 *             if the target cannot be written
+	 * @throws UnsupportedOperationException
+	 *             if the renderer creates images
+	 */
+	public void renderTo(Appendable out) throws IOException;
+
+	/**
+	 * write the rendering directly to the given stream, images are written as PNG,
+	 * text is written as UTF-8; the stream is flushed but not closed
+	 * 
+	 * @param out
+	 *            the stream to write to
+	 * @throws IOException
+	 *             if the stream cannot be written
+	 */
+	public void renderTo(OutputStream out) throws IOException;
+
 	/**
 	 * @param inPattern
 	 *            the Number format pattern to show the number
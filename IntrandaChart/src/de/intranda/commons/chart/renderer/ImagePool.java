@@ -0,0 +1,247 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.renderer;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.IndexColorModel;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/*************************************************************************************
+ * An ImagePool keeps the images of finished renderings, so that the next rendering 
+ * of the same size can paint into the same raster instead of allocating a new one
+ * 
+ * An image is taken from the pool with {@link #checkout(int, int)} and belongs to the 
+ * caller until it is given back with {@link #release(BufferedImage)}. After that the 
+ * caller must not use it anymore, the next checkout may hand it out again with its 
+ * old content. Released images are only kept as long as all kept images together 
+ * need no more than the configured number of bytes, the others are left to the 
+ * garbage collector.
+ * 
+ * One pool can be shared by several renderers and threads.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see ChartRenderer#setImagePool(ImagePool)
+ *************************************************************************************/
+public class ImagePool {
+	private final Map<Object, LinkedList<BufferedImage>> images = new HashMap<Object, LinkedList<BufferedImage>>();
+	private final Map<BufferedImage, Boolean> checkedOut = new WeakHashMap<BufferedImage, Boolean>();
+	private long maxRetainedBytes;
+	private long retainedBytes;
+	private long allocations;
+	private long reuses;
+
+	/*************************************************************************************
+	 * public constructor
+	 * 
+	 * @param maxRetainedBytes
+	 *            the maximum number of bytes of all images kept in the pool
+	 *************************************************************************************/
+	public ImagePool(long maxRetainedBytes) {
+		setMaxRetainedBytes(maxRetainedBytes);
+	}
+
+	/*************************************************************************************
+	 * take an RGB image of the given size from the pool or create a new one, the 
+	 * content of a reused image is not cleared
+	 * 
+	 * @param width
+	 *            width of the image
+	 * @param height
+	 *            height of the image
+	 * @return an image of type {@link BufferedImage#TYPE_INT_RGB}
+	 *************************************************************************************/
+	public BufferedImage checkout(int width, int height) {
+		return checkout(width, height, null);
+	}
+
+	/*************************************************************************************
+	 * take an image with indexed colors of the given size and palette from the pool 
+	 * or create a new one, the content of a reused image is not cleared
+	 * 
+	 * @param width
+	 *            width of the image
+	 * @param height
+	 *            height of the image
+	 * @param colorModel
+	 *            the palette of the image, null for an RGB image
+	 * @return an image of type {@link BufferedImage#TYPE_BYTE_INDEXED} with exactly 
+	 *         the given color model instance or of type {@link BufferedImage#TYPE_INT_RGB}
+	 *************************************************************************************/
+	public BufferedImage checkout(int width, int height, IndexColorModel colorModel) {
+		BufferedImage image = null;
+		synchronized (this) {
+			LinkedList<BufferedImage> list = images.get(key(width, height, colorModel));
+			if (list != null && !list.isEmpty()) {
+				image = list.removeLast();
+				retainedBytes -= bytes(image);
+				reuses++;
+			} else {
+				allocations++;
+			}
+		}
+		if (image == null) {
+			/* allocate outside of the lock, large rasters take a while */
+			if (colorModel == null) {
+				image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			} else {
+				image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED, colorModel);
+			}
+		}
+		synchronized (this) {
+			checkedOut.put(image, Boolean.TRUE);
+		}
+		return image;
+	}
+
+	/*************************************************************************************
+	 * give an image back to the pool, the caller must not use it afterwards
+	 * 
+	 * @param image
+	 *            an image returned by {@link #checkout(int, int)} or 
+	 *            {@link #checkout(int, int, IndexColorModel)}
+	 * @return false if the image was not checked out from this pool or was released 
+	 *         already, it is ignored then
+	 *************************************************************************************/
+	public synchronized boolean release(BufferedImage image) {
+		if (checkedOut.remove(image) == null) {
+			return false;
+		}
+		long bytes = bytes(image);
+		if (retainedBytes + bytes <= maxRetainedBytes) {
+			Object key = key(image.getWidth(), image.getHeight(),
+					image.getType() == BufferedImage.TYPE_BYTE_INDEXED ? (IndexColorModel) image.getColorModel() : null);
+			LinkedList<BufferedImage> list = images.get(key);
+			if (list == null) {
+				list = new LinkedList<BufferedImage>();
+				images.put(key, list);
+			}
+			list.addLast(image);
+			retainedBytes += bytes;
+		}
+		return true;
+	}
+
+	private static Object key(int width, int height, IndexColorModel colorModel) {
+		long size = ((long) width << 32) | (height & 0xFFFFFFFFL);
+		if (colorModel == null) {
+			return Long.valueOf(size);
+		}
+		return new IndexedKey(size, colorModel);
+	}
+
+	private static long bytes(BufferedImage image) {
+		DataBuffer buffer = image.getRaster().getDataBuffer();
+		return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+	}
+
+	/*************************************************************************************
+	 * remove all kept images, checked out images can still be released
+	 *************************************************************************************/
+	public synchronized void clear() {
+		images.clear();
+		retainedBytes = 0;
+	}
+
+	/*************************************************************************************
+	 * setter for the maximum number of bytes of all kept images, images are removed 
+	 * if necessary
+	 * 
+	 * @param maxRetainedBytes
+	 *            the maximum number of bytes
+	 *************************************************************************************/
+	public synchronized void setMaxRetainedBytes(long maxRetainedBytes) {
+		if (maxRetainedBytes < 0) {
+			throw new IllegalArgumentException("The size of an ImagePool must not be negative: " + maxRetainedBytes);
+		}
+		this.maxRetainedBytes = maxRetainedBytes;
+		if (retainedBytes > maxRetainedBytes) {
+			clear();
+		}
+	}
+
+	/*************************************************************************************
+	 * getter for the maximum number of bytes of all kept images
+	 * 
+	 * @return maximum number of bytes
+	 *************************************************************************************/
+	public synchronized long getMaxRetainedBytes() {
+		return maxRetainedBytes;
+	}
+
+	/*************************************************************************************
+	 * getter for the number of bytes of all kept images
+	 * 
+	 * @return number of bytes
+	 *************************************************************************************/
+	public synchronized long getRetainedBytes() {
+		return retainedBytes;
+	}
+
+	/*************************************************************************************
+	 * getter for the number of images created by the pool
+	 * 
+	 * @return number of allocations
+	 *************************************************************************************/
+	public synchronized long getAllocationCount() {
+		return allocations;
+	}
+
+	/*************************************************************************************
+	 * getter for the number of checkouts served with a kept image
+	 * 
+	 * @return number of reuses
+	 *************************************************************************************/
+	public synchronized long getReuseCount() {
+		return reuses;
+	}
+
+	/*************************************************************************************
+	 * key of indexed images, the color model is compared by identity: painting needs 
+	 * the color model instance of the theme, and equal palettes of different themes 
+	 * must not share images
+	 *************************************************************************************/
+	private static final class IndexedKey {
+		private final long size;
+		private final IndexColorModel colorModel;
+
+		IndexedKey(long size, IndexColorModel colorModel) {
+			this.size = size;
+			this.colorModel = colorModel;
+		}
+
+		public int hashCode() {
+			return (int) (size ^ (size >>> 32)) * 31 + System.identityHashCode(colorModel);
+		}
+
+		public boolean equals(Object obj) {
+			if (!(obj instanceof IndexedKey)) {
+				return false;
+			}
+			IndexedKey other = (IndexedKey) obj;
+			return size == other.size && colorModel == other.colorModel;
+		}
+	}
+}
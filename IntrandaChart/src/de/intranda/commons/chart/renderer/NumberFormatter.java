@@ -0,0 +1,194 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.renderer;
+
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/*************************************************************************************
+ * A NumberFormatter formats numbers with a {@link DecimalFormat} pattern. Each pattern
+ * is compiled only once and can be used by several threads at the same time.
+ * 
+ * Simple patterns without grouping, prefix or suffix like <code>#</code>, 
+ * <code>#.##</code> or <code>0.00</code> are formatted by a fast path that writes 
+ * the digits directly to the target without creating any Strings. All other 
+ * patterns use a {@link DecimalFormat} for each thread. Both give the same result.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see Util#roundAsString(double, String)
+ *************************************************************************************/
+public class NumberFormatter {
+	private static final int MAX_CACHED_PATTERNS = 256;
+	private static final int MAX_FAST_FRACTION_DIGITS = 9;
+	private static final long[] POWERS_OF_TEN = new long[19];
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	private static final ConcurrentMap<String, NumberFormatter> formatters = new ConcurrentHashMap<String, NumberFormatter>();
+
+	private final Locale locale;
+	private final DecimalFormat prototype;
+	private final ThreadLocal<DecimalFormat> decimalFormats;
+
+	/* settings of the fast path, only used if fast is true */
+	private final boolean fast;
+	private final int minimumIntegerDigits;
+	private final int minimumFractionDigits;
+	private final int maximumFractionDigits;
+	private final double maximumFastValue;
+	private final char zeroDigit;
+	private final char minusSign;
+	private final char decimalSeparator;
+
+	/*************************************************************************************
+	 * get the formatter for a pattern, the formatter is compiled only once for each 
+	 * pattern and default locale
+	 * 
+	 * @param pattern
+	 *            the {@link DecimalFormat} pattern
+	 * @return the {@link NumberFormatter}
+	 *************************************************************************************/
+	public static NumberFormatter getInstance(String pattern) {
+		NumberFormatter formatter = formatters.get(pattern);
+		if (formatter == null || !formatter.locale.equals(Locale.getDefault())) {
+			if (formatters.size() >= MAX_CACHED_PATTERNS) {
+				formatters.clear();
+			}
+			formatter = new NumberFormatter(pattern);
+			formatters.put(pattern, formatter);
+		}
+		return formatter;
+	}
+
+	private NumberFormatter(String pattern) {
+		locale = Locale.getDefault();
+		prototype = new DecimalFormat(pattern);
+		decimalFormats = new ThreadLocal<DecimalFormat>() {
+			protected DecimalFormat initialValue() {
+				return (DecimalFormat) prototype.clone();
+			}
+		};
+
+		DecimalFormatSymbols symbols = prototype.getDecimalFormatSymbols();
+		zeroDigit = symbols.getZeroDigit();
+		minusSign = symbols.getMinusSign();
+		decimalSeparator = symbols.getDecimalSeparator();
+		minimumIntegerDigits = prototype.getMinimumIntegerDigits();
+		minimumFractionDigits = prototype.getMinimumFractionDigits();
+		maximumFractionDigits = prototype.getMaximumFractionDigits();
+		maximumFastValue = 1e15 / POWERS_OF_TEN[Math.min(maximumFractionDigits, MAX_FAST_FRACTION_DIGITS)];
+		fast = maximumFractionDigits <= MAX_FAST_FRACTION_DIGITS && minimumIntegerDigits <= 18 && !prototype.isGroupingUsed()
+				&& prototype.getMultiplier() == 1 && !prototype.isDecimalSeparatorAlwaysShown() && prototype.getRoundingMode() == RoundingMode.HALF_EVEN
+				&& prototype.getPositivePrefix().length() == 0 && prototype.getPositiveSuffix().length() == 0
+				&& prototype.getNegativePrefix().equals(String.valueOf(minusSign)) && prototype.getNegativeSuffix().length() == 0
+				&& prototype.toPattern().indexOf('E') < 0;
+	}
+
+	/*************************************************************************************
+	 * format a number as String
+	 * 
+	 * @param value
+	 *            the number to format
+	 * @return the formatted number
+	 *************************************************************************************/
+	public String format(double value) {
+		if (!fast) {
+			return decimalFormats.get().format(value);
+		}
+		StringBuilder sb = new StringBuilder(24);
+		try {
+			appendTo(sb, value);
+		} catch (IOException e) {
+			/* a StringBuilder does not throw IOExceptions */
+			throw new IllegalStateException(e);
+		}
+		return sb.toString();
+	}
+
+	/*************************************************************************************
+	 * format a number and append it to the target
+	 * 
+	 * @param out
+	 *            the target to append the number to
+	 * @param value
+	 *            the number to format
+	 * @throws IOException
+	 *             if the target cannot be written
+	 *************************************************************************************/
+	public void appendTo(Appendable out, double value) throws IOException {
+		boolean negative = value < 0 || (value == 0 && 1 / value < 0);
+		double absolute = Math.abs(value);
+		double scaled = fast ? absolute * POWERS_OF_TEN[maximumFractionDigits] : 0;
+		if (!fast || !(absolute < maximumFastValue) || Math.abs(scaled - Math.floor(scaled) - 0.5) <= 2 * Math.ulp(scaled)) {
+			/*
+			 * NaN, infinity, huge numbers, complex patterns and values too close to a rounding tie, the latter are 
+			 * rounded by DecimalFormat to get exactly the same result
+			 */
+			out.append(decimalFormats.get().format(value));
+			return;
+		}
+
+		long units = (long) Math.rint(scaled);
+		long integerPart = units / POWERS_OF_TEN[maximumFractionDigits];
+		long fractionPart = units % POWERS_OF_TEN[maximumFractionDigits];
+		int fractionDigits = maximumFractionDigits;
+		while (fractionDigits > minimumFractionDigits && fractionPart % 10 == 0) {
+			fractionPart /= 10;
+			fractionDigits--;
+		}
+
+		if (negative) {
+			out.append(minusSign);
+		}
+		int integerDigits = 1;
+		while (integerDigits < 19 && integerPart >= POWERS_OF_TEN[integerDigits]) {
+			integerDigits++;
+		}
+		if (integerPart == 0) {
+			/* like DecimalFormat: no integer digit for ".5" with pattern "#.##", but "0" for zero */
+			integerDigits = fractionDigits > 0 ? 0 : 1;
+		}
+		for (int i = integerDigits; i < minimumIntegerDigits; i++) {
+			out.append(zeroDigit);
+		}
+		appendDigits(out, integerPart, integerDigits);
+		if (fractionDigits > 0) {
+			out.append(decimalSeparator);
+			appendDigits(out, fractionPart, fractionDigits);
+		}
+	}
+
+	private void appendDigits(Appendable out, long number, int digits) throws IOException {
+		for (int i = digits - 1; i >= 0; i--) {
+			out.append((char) (zeroDigit + (number / POWERS_OF_TEN[i]) % 10));
+		}
+	}
+}
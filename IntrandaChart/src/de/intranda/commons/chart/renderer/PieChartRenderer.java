@@ -22,6 +22,9 @@ package de.intranda.commons.chart.renderer;
 
 import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.JFreeChart;
@@ -41,6 +44,8 @@ public class PieChartRenderer implements IRenderer {
 	private DataTable myDataTable;
 	private int width = 1024;
 	private int height = 800;
+	private RenderCache renderCache = null;
+	private PngEncoder pngEncoder = new PngEncoder();
 
 	public void setDataTable(DataTable inDataTable) {
 		myDataTable = inDataTable;
@@ -79,6 +84,64 @@ public class PieChartRenderer implements IRenderer {
 		return image;
 	}
 
+	/*************************************************************************************
+	 * write rendered pie chart as PNG to the given stream, from the 
+	 * {@link RenderCache} if one is set
+	 * 
+	 * @param out the stream to write to, it is flushed but not closed
+	 * @throws IOException
+	 *************************************************************************************/
+	public void renderTo(OutputStream out) throws IOException {
+		if (myDataTable == null) {
+			throw new IllegalStateException("No DataTable set. No rendering possible.");
+		}
+		if (renderCache == null) {
+			writePng(out);
+		} else {
+			RenderCache.Key key = RenderCache.createKey(getDataTable(), getClass(), width, height, pngEncoder.getCompressionLevel(), pngEncoder.getFilter());
+			byte[] png = renderCache.get(key);
+			if (png == null) {
+				ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+				writePng(buffer);
+				png = buffer.toByteArray();
+				renderCache.put(key, png);
+			}
+			out.write(png);
+		}
+		out.flush();
+	}
+
+	private void writePng(OutputStream out) throws IOException {
+		pngEncoder.encode((BufferedImage) getRendering(), out);
+	}
+
+	/*************************************************************************************
+	 * pie charts are images, they cannot be rendered as text
+	 * 
+	 * @throws UnsupportedOperationException always
+	 *************************************************************************************/
+	public void renderTo(Appendable out) {
+		throw new UnsupportedOperationException("PieChartRenderer creates images, use renderTo(OutputStream).");
+	}
+
+	/*************************************************************************************
+	 * getter for image width
+	 * 
+	 * @return width of the image
+	 *************************************************************************************/
+	public int getWidth() {
+		return width;
+	}
+
+	/*************************************************************************************
+	 * getter for image height
+	 * 
+	 * @return height of the image
+	 *************************************************************************************/
+	public int getHeight() {
+		return height;
+	}
+
 	/*************************************************************************************
 	 * setter for image size
 	 * 
@@ -110,4 +173,46 @@ public class PieChartRenderer implements IRenderer {
 	public DataTable getDataTable() {
 		return myDataTable;
 	}
+
+	/*************************************************************************************
+	 * getter for the render cache
+	 * 
+	 * @return the {@link RenderCache} or null
+	 *************************************************************************************/
+	public RenderCache getRenderCache() {
+		return renderCache;
+	}
+
+	/*************************************************************************************
+	 * setter for a render cache, renderTo(OutputStream) takes the PNG from this cache 
+	 * if the same chart was rendered before
+	 * 
+	 * @param renderCache
+	 *            the {@link RenderCache} to use, null for none
+	 *************************************************************************************/
+	public void setRenderCache(RenderCache renderCache) {
+		this.renderCache = renderCache;
+	}
+
+	/*************************************************************************************
+	 * getter for the PNG encoder
+	 * 
+	 * @return the {@link PngEncoder}
+	 *************************************************************************************/
+	public PngEncoder getPngEncoder() {
+		return pngEncoder;
+	}
+
+	/*************************************************************************************
+	 * setter for the PNG encoder used by renderTo(OutputStream)
+	 * 
+	 * @param pngEncoder
+	 *            the {@link PngEncoder} to use
+	 *************************************************************************************/
+	public void setPngEncoder(PngEncoder pngEncoder) {
+		if (pngEncoder == null) {
+			throw new IllegalArgumentException("The PngEncoder must not be null.");
+		}
+		this.pngEncoder = pngEncoder;
+	}
 }
@@ -0,0 +1,513 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.renderer;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/*************************************************************************************
+ * A PngEncoder writes {@link BufferedImage}s as PNG, it replaces the ImageIO writer 
+ * for the output of the chart renderers
+ * 
+ * The pixels of RGB and ARGB images are read directly from their int raster, other 
+ * images are read row by row. Images of type {@link BufferedImage#TYPE_BYTE_INDEXED} 
+ * are written as palette PNG with one byte per pixel. Compression level and row filter can be chosen, for 
+ * charts with their large flat areas {@link Filter#UP} is usually as small as the 
+ * adaptive filter and faster. If an executor is set, the image is cut into strips 
+ * of rows which are filtered and compressed in parallel; the compressed strips are 
+ * joined to a single zlib stream, so the result is a normal PNG.
+ * 
+ * An encoder can be used by several threads at the same time as long as its 
+ * settings are not changed.
+ * 
+ * @version 18.10.2026
+ *************************************************************************************/
+public class PngEncoder {
+	private static final byte[] SIGNATURE = { (byte) 137, 80, 78, 71, 13, 10, 26, 10 };
+	private static final int MIN_STRIP_BYTES = 256 * 1024;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/*************************************************************************************
+	 * the PNG row filters, ADAPTIVE chooses the best of the others for each row
+	 *************************************************************************************/
+	public enum Filter {
+		NONE, SUB, UP, AVERAGE, PAETH, ADAPTIVE;
+	}
+
+	private int compressionLevel = 6;
+	private Filter filter = Filter.UP;
+	private ExecutorService executor = null;
+
+	/*************************************************************************************
+	 * write an image as PNG to the given stream
+	 * 
+	 * @param image
+	 *            the image to write
+	 * @param out
+	 *            the stream to write to, it is neither flushed nor closed
+	 * @throws IOException
+	 *************************************************************************************/
+	public void encode(BufferedImage image, OutputStream out) throws IOException {
+		Pixels pixels = new Pixels(image);
+		int width = image.getWidth();
+		int height = image.getHeight();
+
+		byte[] header = new byte[13];
+		putInt(header, 0, width);
+		putInt(header, 4, height);
+		header[8] = 8;
+		header[9] = (byte) (pixels.palette != null ? 3 : pixels.alpha ? 6 : 2);
+		out.write(SIGNATURE);
+		writeChunk(out, "IHDR", header, 0, header.length);
+		if (pixels.palette != null) {
+			writePalette(out, pixels.palette);
+		}
+
+		/* zlib stream: header, the strips as raw deflate data and the adler32 checksum, one IDAT chunk per strip */
+		long rowBytes = 1 + (long) width * pixels.bytesPerPixel;
+		int rowsPerStrip = height;
+		if (executor != null) {
+			int strips = Runtime.getRuntime().availableProcessors() * 2;
+			rowsPerStrip = (int) Math.max((height + strips - 1) / strips, (MIN_STRIP_BYTES + rowBytes - 1) / rowBytes);
+		}
+		List<Strip> strips = new ArrayList<Strip>();
+		for (int row = 0; row < height; row += rowsPerStrip) {
+			strips.add(new Strip(pixels, row, Math.min(height, row + rowsPerStrip)));
+		}
+
+		if (strips.size() == 1) {
+			strips.get(0).run();
+		} else {
+			List<Future<?>> futures = new ArrayList<Future<?>>(strips.size());
+			for (Strip strip : strips) {
+				futures.add(executor.submit(strip));
+			}
+			try {
+				for (Future<?> future : futures) {
+					future.get();
+				}
+			} catch (InterruptedException e) {
+				for (Future<?> future : futures) {
+					future.cancel(true);
+				}
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("PNG encoding interrupted");
+			} catch (ExecutionException e) {
+				throw new IOException("PNG encoding failed", e.getCause());
+			}
+		}
+		long adler = 1;
+		for (Strip strip : strips) {
+			adler = combineAdler(adler, strip.adler, strip.rawLength);
+		}
+		Strip last = strips.get(strips.size() - 1);
+		last.ensureCapacity();
+		putInt(last.data, last.length, (int) adler);
+		last.length += 4;
+		for (Strip strip : strips) {
+			writeChunk(out, "IDAT", strip.data, 0, strip.length);
+		}
+		writeChunk(out, "IEND", header, 0, 0);
+	}
+
+	/*************************************************************************************
+	 * write the PLTE chunk and, if the palette has transparent colors, the tRNS chunk
+	 *************************************************************************************/
+	private static void writePalette(OutputStream out, IndexColorModel palette) throws IOException {
+		int size = palette.getMapSize();
+		byte[] rgb = new byte[3 * size];
+		byte[] alpha = new byte[size];
+		int transparent = 0;
+		for (int i = 0; i < size; i++) {
+			int color = palette.getRGB(i);
+			rgb[3 * i] = (byte) (color >>> 16);
+			rgb[3 * i + 1] = (byte) (color >>> 8);
+			rgb[3 * i + 2] = (byte) color;
+			alpha[i] = (byte) (color >>> 24);
+			if (alpha[i] != (byte) 255) {
+				/* the tRNS chunk can end with the last transparent color */
+				transparent = i + 1;
+			}
+		}
+		writeChunk(out, "PLTE", rgb, 0, rgb.length);
+		if (transparent > 0) {
+			writeChunk(out, "tRNS", alpha, 0, transparent);
+		}
+	}
+
+	/*************************************************************************************
+	 * one strip of rows, filtered and compressed to raw deflate data that ends at a 
+	 * byte boundary, the last strip ends the deflate stream
+	 *************************************************************************************/
+	private final class Strip implements Runnable {
+		private final Pixels pixels;
+		private final int firstRow;
+		private final int endRow;
+		private byte[] data = new byte[BUFFER_SIZE];
+		private int length = 0;
+		private long rawLength = 0;
+		private long adler;
+
+		private Strip(Pixels pixels, int firstRow, int endRow) {
+			this.pixels = pixels;
+			this.firstRow = firstRow;
+			this.endRow = endRow;
+			if (firstRow == 0) {
+				/* zlib header without preset dictionary */
+				data[length++] = 0x78;
+				data[length++] = (byte) (compressionLevel < 2 ? 0x01 : compressionLevel < 6 ? 0x5E : compressionLevel == 6 ? 0x9C : 0xDA);
+			}
+		}
+
+		public void run() {
+			int rowLength = pixels.width * pixels.bytesPerPixel;
+			int[] rgb = pixels.data == null && pixels.palette == null ? new int[pixels.width] : null;
+			byte[] previous = new byte[rowLength];
+			byte[] current = new byte[rowLength];
+			byte[][] filtered = new byte[filter == Filter.ADAPTIVE ? 5 : 1][rowLength + 1];
+			byte[] input = new byte[Math.max(BUFFER_SIZE, rowLength + 1)];
+			int inputLength = 0;
+			Adler32 checksum = new Adler32();
+			Deflater deflater = new Deflater(compressionLevel, true);
+			try {
+				if (firstRow > 0) {
+					pixels.read(firstRow - 1, previous, rgb);
+				}
+				for (int y = firstRow; y < endRow; y++) {
+					pixels.read(y, current, rgb);
+					byte[] row = filterRow(current, previous, pixels.bytesPerPixel, filtered);
+					if (inputLength + row.length > input.length) {
+						inputLength = deflate(deflater, checksum, input, inputLength);
+					}
+					System.arraycopy(row, 0, input, inputLength, row.length);
+					inputLength += row.length;
+					byte[] swap = previous;
+					previous = current;
+					current = swap;
+				}
+				deflate(deflater, checksum, input, inputLength);
+				if (endRow == pixels.height) {
+					deflater.finish();
+					while (!deflater.finished()) {
+						ensureCapacity();
+						length += deflater.deflate(data, length, data.length - length);
+					}
+				} else {
+					do {
+						ensureCapacity();
+						length += deflater.deflate(data, length, data.length - length, Deflater.SYNC_FLUSH);
+					} while (length == data.length);
+				}
+				adler = checksum.getValue();
+			} finally {
+				deflater.end();
+			}
+		}
+
+		private int deflate(Deflater deflater, Adler32 checksum, byte[] input, int inputLength) {
+			checksum.update(input, 0, inputLength);
+			rawLength += inputLength;
+			deflater.setInput(input, 0, inputLength);
+			while (!deflater.needsInput()) {
+				ensureCapacity();
+				length += deflater.deflate(data, length, data.length - length);
+			}
+			return 0;
+		}
+
+		private void ensureCapacity() {
+			if (data.length - length < 64) {
+				byte[] bigger = new byte[data.length * 2];
+				System.arraycopy(data, 0, bigger, 0, length);
+				data = bigger;
+			}
+		}
+	}
+
+	/*************************************************************************************
+	 * filter one row with the selected filter
+	 * 
+	 * @return the filtered row with the filter type in front, one of the given buffers
+	 *************************************************************************************/
+	private byte[] filterRow(byte[] current, byte[] previous, int bpp, byte[][] buffers) {
+		if (filter != Filter.ADAPTIVE) {
+			filterRow(filter.ordinal(), current, previous, bpp, buffers[0]);
+			return buffers[0];
+		}
+		/* heuristic of the PNG specification: smallest sum of absolute differences */
+		byte[] best = null;
+		long bestSum = Long.MAX_VALUE;
+		for (int type = 0; type < 5; type++) {
+			long sum = filterRow(type, current, previous, bpp, buffers[type]);
+			if (sum < bestSum) {
+				bestSum = sum;
+				best = buffers[type];
+			}
+		}
+		return best;
+	}
+
+	private static long filterRow(int type, byte[] current, byte[] previous, int bpp, byte[] result) {
+		int length = current.length;
+		long sum = 0;
+		result[0] = (byte) type;
+		switch (type) {
+		case 0:
+			System.arraycopy(current, 0, result, 1, length);
+			for (int i = 0; i < length; i++) {
+				sum += Math.abs(current[i]);
+			}
+			return sum;
+		case 1:
+			for (int i = 0; i < length; i++) {
+				int left = i < bpp ? 0 : current[i - bpp];
+				byte value = (byte) (current[i] - left);
+				result[i + 1] = value;
+				sum += Math.abs(value);
+			}
+			return sum;
+		case 2:
+			for (int i = 0; i < length; i++) {
+				byte value = (byte) (current[i] - previous[i]);
+				result[i + 1] = value;
+				sum += Math.abs(value);
+			}
+			return sum;
+		case 3:
+			for (int i = 0; i < length; i++) {
+				int left = i < bpp ? 0 : current[i - bpp] & 0xFF;
+				byte value = (byte) (current[i] - ((left + (previous[i] & 0xFF)) >>> 1));
+				result[i + 1] = value;
+				sum += Math.abs(value);
+			}
+			return sum;
+		default:
+			for (int i = 0; i < length; i++) {
+				int a = i < bpp ? 0 : current[i - bpp] & 0xFF;
+				int b = previous[i] & 0xFF;
+				int c = i < bpp ? 0 : previous[i - bpp] & 0xFF;
+				int pa = Math.abs(b - c);
+				int pb = Math.abs(a - c);
+				int pc = Math.abs(a + b - 2 * c);
+				int predictor = pa <= pb && pa <= pc ? a : pb <= pc ? b : c;
+				byte value = (byte) (current[i] - predictor);
+				result[i + 1] = value;
+				sum += Math.abs(value);
+			}
+			return sum;
+		}
+	}
+
+	/*************************************************************************************
+	 * access to the pixels of an image, directly on the int array where possible, 
+	 * the indices of indexed images are read from their raster
+	 *************************************************************************************/
+	private static final class Pixels {
+		private final BufferedImage image;
+		private final int width;
+		private final int height;
+		private final IndexColorModel palette;
+		private final boolean alpha;
+		private final int bytesPerPixel;
+		private final int[] data;
+		private final int offset;
+		private final int scanlineStride;
+
+		private Pixels(BufferedImage image) {
+			this.image = image;
+			this.width = image.getWidth();
+			this.height = image.getHeight();
+			if (image.getType() == BufferedImage.TYPE_BYTE_INDEXED && image.getColorModel() instanceof IndexColorModel
+					&& image.getColorModel().getPixelSize() == 8) {
+				this.palette = (IndexColorModel) image.getColorModel();
+				this.alpha = false;
+				this.bytesPerPixel = 1;
+			} else {
+				this.palette = null;
+				this.alpha = image.getColorModel().hasAlpha();
+				this.bytesPerPixel = alpha ? 4 : 3;
+			}
+			WritableRaster raster = image.getRaster();
+			if ((image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_INT_ARGB)
+					&& raster.getDataBuffer() instanceof DataBufferInt && raster.getSampleModel() instanceof SinglePixelPackedSampleModel) {
+				SinglePixelPackedSampleModel sampleModel = (SinglePixelPackedSampleModel) raster.getSampleModel();
+				data = ((DataBufferInt) raster.getDataBuffer()).getData();
+				offset = raster.getDataBuffer().getOffset()
+						+ sampleModel.getOffset(-raster.getSampleModelTranslateX(), -raster.getSampleModelTranslateY());
+				scanlineStride = sampleModel.getScanlineStride();
+			} else {
+				data = null;
+				offset = 0;
+				scanlineStride = 0;
+			}
+		}
+
+		/* the row as RGB or RGBA bytes or palette indices, rgb is needed for images without int raster */
+		private void read(int y, byte[] row, int[] rgb) {
+			if (palette != null) {
+				image.getRaster().getDataElements(0, y, width, 1, row);
+				return;
+			}
+			int[] source = data;
+			int start = offset + y * scanlineStride;
+			if (source == null) {
+				source = rgb;
+				start = 0;
+				image.getRGB(0, y, width, 1, source, 0, width);
+			}
+			int j = 0;
+			for (int i = 0; i < width; i++) {
+				int pixel = source[start + i];
+				row[j++] = (byte) (pixel >>> 16);
+				row[j++] = (byte) (pixel >>> 8);
+				row[j++] = (byte) pixel;
+				if (alpha) {
+					row[j++] = (byte) (pixel >>> 24);
+				}
+			}
+		}
+	}
+
+	private static void writeChunk(OutputStream out, String type, byte[] data, int offset, int length) throws IOException {
+		byte[] head = new byte[8];
+		putInt(head, 0, length);
+		for (int i = 0; i < 4; i++) {
+			head[4 + i] = (byte) type.charAt(i);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(head, 4, 4);
+		crc.update(data, offset, length);
+		byte[] tail = new byte[4];
+		putInt(tail, 0, (int) crc.getValue());
+		out.write(head);
+		out.write(data, offset, length);
+		out.write(tail);
+	}
+
+	private static void putInt(byte[] bytes, int offset, int value) {
+		bytes[offset] = (byte) (value >>> 24);
+		bytes[offset + 1] = (byte) (value >>> 16);
+		bytes[offset + 2] = (byte) (value >>> 8);
+		bytes[offset + 3] = (byte) value;
+	}
+
+	/* adler32 of two joined byte sequences, as adler32_combine of zlib */
+	private static long combineAdler(long adler1, long adler2, long length2) {
+		final long base = 65521;
+		long remainder = length2 % base;
+		long sum1 = adler1 & 0xFFFF;
+		long sum2 = (remainder * sum1) % base;
+		sum1 += (adler2 & 0xFFFF) + base - 1;
+		sum2 += ((adler1 >>> 16) & 0xFFFF) + ((adler2 >>> 16) & 0xFFFF) + base - remainder;
+		if (sum1 >= base) {
+			sum1 -= base;
+		}
+		if (sum1 >= base) {
+			sum1 -= base;
+		}
+		if (sum2 >= 2 * base) {
+			sum2 -= 2 * base;
+		}
+		if (sum2 >= base) {
+			sum2 -= base;
+		}
+		return sum1 | (sum2 << 16);
+	}
+
+	/*************************************************************************************
+	 * getter for the compression level
+	 * 
+	 * @return the deflate level from 0 to 9
+	 *************************************************************************************/
+	public int getCompressionLevel() {
+		return compressionLevel;
+	}
+
+	/*************************************************************************************
+	 * setter for the compression level, higher levels give smaller files but take 
+	 * longer, the default is 6
+	 * 
+	 * @param compressionLevel
+	 *            the deflate level from 0 to 9
+	 *************************************************************************************/
+	public void setCompressionLevel(int compressionLevel) {
+		if (compressionLevel < 0 || compressionLevel > 9) {
+			throw new IllegalArgumentException("The compression level must be between 0 and 9: " + compressionLevel);
+		}
+		this.compressionLevel = compressionLevel;
+	}
+
+	/*************************************************************************************
+	 * getter for the row filter
+	 * 
+	 * @return the {@link Filter}
+	 *************************************************************************************/
+	public Filter getFilter() {
+		return filter;
+	}
+
+	/*************************************************************************************
+	 * setter for the row filter, the default is {@link Filter#UP}
+	 * 
+	 * @param filter
+	 *            the {@link Filter} to use
+	 *************************************************************************************/
+	public void setFilter(Filter filter) {
+		if (filter == null) {
+			throw new IllegalArgumentException("The filter must not be null.");
+		}
+		this.filter = filter;
+	}
+
+	/*************************************************************************************
+	 * getter for the executor
+	 * 
+	 * @return the executor compressing the strips or null
+	 *************************************************************************************/
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/*************************************************************************************
+	 * setter for an executor to compress strips of large images in parallel, without 
+	 * one the image is compressed by the calling thread
+	 * 
+	 * @param executor
+	 *            the executor or null
+	 *************************************************************************************/
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+}
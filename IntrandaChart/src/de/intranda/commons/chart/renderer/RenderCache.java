@@ -0,0 +1,267 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.renderer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import de.intranda.commons.chart.results.DataRow;
+import de.intranda.commons.chart.results.DataTable;
+
+/*************************************************************************************
+ * A RenderCache keeps encoded renderings of charts, so that a chart requested again 
+ * with the same content and the same settings is not painted a second time
+ * 
+ * The cache is keyed by a 64 bit hash over everything of the {@link DataTable} that 
+ * is visible in a chart (names, labels, values and point flags) together with the 
+ * settings of the renderer. It holds the encoded bytes of at most the configured 
+ * number of bytes and evicts the least recently used renderings first.
+ * 
+ * One cache can be shared by several renderers and threads. Two threads asking for 
+ * the same missing chart at the same time both render it.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see ChartRenderer#setRenderCache(RenderCache)
+ * @see PieChartRenderer#setRenderCache(RenderCache)
+ *************************************************************************************/
+public class RenderCache {
+	private static final long HASH_SEED = 0x6A09E667F3BCC908L;
+
+	private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<Key, byte[]>(16, 0.75f, true);
+	private long maxBytes;
+	private long size;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/*************************************************************************************
+	 * public constructor
+	 * 
+	 * @param maxBytes
+	 *            the maximum number of encoded bytes to keep
+	 *************************************************************************************/
+	public RenderCache(long maxBytes) {
+		setMaxBytes(maxBytes);
+	}
+
+	/*************************************************************************************
+	 * create the key for a rendering of a table
+	 * 
+	 * @param table
+	 *            the rendered {@link DataTable}
+	 * @param settings
+	 *            all settings of the renderer that change the result, lists are copied
+	 * @return the key
+	 *************************************************************************************/
+	static Key createKey(DataTable table, Object... settings) {
+		Object[] copy = settings.clone();
+		for (int i = 0; i < copy.length; i++) {
+			if (copy[i] instanceof List<?>) {
+				copy[i] = new ArrayList<Object>((List<?>) copy[i]);
+			}
+		}
+		List<DataRow> rows = table.getDataRows();
+		long hash = hash(HASH_SEED, table.getName());
+		hash = hash(hash, table.getSubname());
+		hash = hash(hash, table.getUnitLabel());
+		hash = mix(hash, rows.size());
+		for (DataRow row : rows) {
+			hash = hash(hash, row.getName());
+			hash = mix(hash, row.isShowPoint() ? 1 : 0);
+			int size = row.getNumberValues();
+			hash = mix(hash, size);
+			for (int i = 0; i < size; i++) {
+				hash = hash(hash, row.getLabel(i));
+				hash = mix(hash, Double.doubleToLongBits(row.getDouble(i)));
+			}
+		}
+		return new Key(hash, copy);
+	}
+
+	private static long mix(long hash, long value) {
+		hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+		return hash ^ (hash >>> 32);
+	}
+
+	private static long hash(long hash, String value) {
+		if (value == null) {
+			return mix(hash, -1);
+		}
+		int length = value.length();
+		hash = mix(hash, length);
+		for (int i = 0; i < length; i++) {
+			hash = mix(hash, value.charAt(i));
+		}
+		return hash;
+	}
+
+	/*************************************************************************************
+	 * get a cached rendering, counted as hit or miss
+	 * 
+	 * @param key
+	 *            the key of the rendering
+	 * @return the encoded rendering or null if it is not cached
+	 *************************************************************************************/
+	synchronized byte[] get(Key key) {
+		byte[] value = entries.get(key);
+		if (value == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return value;
+	}
+
+	/*************************************************************************************
+	 * add a rendering to the cache, renderings larger than the whole cache are not kept
+	 * 
+	 * @param key
+	 *            the key of the rendering
+	 * @param value
+	 *            the encoded rendering, it must not be changed afterwards
+	 *************************************************************************************/
+	synchronized void put(Key key, byte[] value) {
+		if (value.length > maxBytes) {
+			return;
+		}
+		byte[] old = entries.put(key, value);
+		if (old != null) {
+			size -= old.length;
+		}
+		size += value.length;
+		evict();
+	}
+
+	private void evict() {
+		Iterator<byte[]> iterator = entries.values().iterator();
+		while (size > maxBytes && iterator.hasNext()) {
+			size -= iterator.next().length;
+			iterator.remove();
+			evictions++;
+		}
+	}
+
+	/*************************************************************************************
+	 * remove all renderings, the counters are kept
+	 *************************************************************************************/
+	public synchronized void clear() {
+		entries.clear();
+		size = 0;
+	}
+
+	/*************************************************************************************
+	 * setter for the maximum number of bytes, renderings are evicted if necessary
+	 * 
+	 * @param maxBytes
+	 *            the maximum number of encoded bytes to keep
+	 *************************************************************************************/
+	public synchronized void setMaxBytes(long maxBytes) {
+		if (maxBytes < 0) {
+			throw new IllegalArgumentException("The size of a RenderCache must not be negative: " + maxBytes);
+		}
+		this.maxBytes = maxBytes;
+		evict();
+	}
+
+	/*************************************************************************************
+	 * getter for the maximum number of bytes
+	 * 
+	 * @return maximum number of encoded bytes
+	 *************************************************************************************/
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/*************************************************************************************
+	 * getter for the number of bytes of all cached renderings
+	 * 
+	 * @return number of encoded bytes
+	 *************************************************************************************/
+	public synchronized long getSize() {
+		return size;
+	}
+
+	/*************************************************************************************
+	 * getter for the number of cached renderings
+	 * 
+	 * @return number of renderings
+	 *************************************************************************************/
+	public synchronized int getNumberEntries() {
+		return entries.size();
+	}
+
+	/*************************************************************************************
+	 * getter for the number of requests answered from the cache
+	 * 
+	 * @return number of hits
+	 *************************************************************************************/
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	/*************************************************************************************
+	 * getter for the number of requests that had to be rendered
+	 * 
+	 * @return number of misses
+	 *************************************************************************************/
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	/*************************************************************************************
+	 * getter for the number of renderings removed to stay within the maximum size
+	 * 
+	 * @return number of evictions
+	 *************************************************************************************/
+	public synchronized long getEvictionCount() {
+		return evictions;
+	}
+
+	/*************************************************************************************
+	 * key of a cached rendering, the content hash of the table and the settings of 
+	 * the renderer
+	 *************************************************************************************/
+	static final class Key {
+		private final long contentHash;
+		private final Object[] settings;
+
+		private Key(long contentHash, Object[] settings) {
+			this.contentHash = contentHash;
+			this.settings = settings;
+		}
+
+		public int hashCode() {
+			return (int) (contentHash ^ (contentHash >>> 32)) * 31 + Arrays.hashCode(settings);
+		}
+
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return contentHash == other.contentHash && Arrays.equals(settings, other.settings);
+		}
+	}
+}
@@ -20,6 +20,9 @@
  */
 package de.intranda.commons.chart.renderer;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 import de.intranda.commons.chart.results.DataRow;
 import de.intranda.commons.chart.results.DataTable;
 
@@ -37,28 +40,34 @@ public class StringDebugRenderer implements IRenderer {
 	}
 
 	public Object getRendering() {
+		return Util.renderText(this);
+	}
+
+	public void renderTo(OutputStream out) throws IOException {
+		Util.renderTextTo(this, out);
+	}
+
+	public void renderTo(Appendable sb) throws IOException {
 		if (myDataTable == null) {
 			throw new IllegalStateException("No DataTable set. No rendering possible.");
 		}
 
 		if (myDataTable.getDataRows().size()==0){
-			return "";
+			return;
 		}
 		
 		/* --------------------------------
 		 * write each row as java code
 		 * --------------------------------*/
-		StringBuilder sb = new StringBuilder();
 		for (DataRow row : myDataTable.getDataRows()) {
-			sb.append("DataRow row = new DataRow(\"" + row.getName() + "\");");
+			sb.append("DataRow row = new DataRow(\"").append(row.getName()).append("\");");
 			sb.append("\n");
 			for (int i = 0; i < row.getNumberValues(); i++) {
-				sb.append("row.addValue(\"" + row.getLabel(i) + "\", " + row.getValue(i) + ");");
+				sb.append("row.addValue(\"").append(row.getLabel(i)).append("\", ").append(String.valueOf(row.getDouble(i))).append(");");
 				sb.append("\n");
 			}
 			
 		}
-		return sb.toString();
 	}
 
 	/*************************************************************************************
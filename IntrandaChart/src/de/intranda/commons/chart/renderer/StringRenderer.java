@@ -20,6 +20,9 @@
  */
 package de.intranda.commons.chart.renderer;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 import de.intranda.commons.chart.results.DataRow;
 import de.intranda.commons.chart.results.DataTable;
 
@@ -38,18 +41,25 @@ public class StringRenderer implements IRenderer {
 	}
 
 	public Object getRendering() {
+		return Util.renderText(this);
+	}
+
+	public void renderTo(OutputStream out) throws IOException {
+		Util.renderTextTo(this, out);
+	}
+
+	public void renderTo(Appendable sb) throws IOException {
 		if (myDataTable == null) {
 			throw new IllegalStateException("No DataTable set. No rendering possible.");
 		}
 
 		if (myDataTable.getDataRows().size()==0){
-			return "";
+			return;
 		}
 		
 		/* --------------------------------
 		 * write header
 		 * --------------------------------*/
-		StringBuilder sb = new StringBuilder();
 		sb.append(" | ");
 		DataRow firstrow = myDataTable.getDataRows().get(0);
 		for (int i = 0; i < firstrow.getNumberValues(); i++) {
@@ -61,18 +71,18 @@ public class StringRenderer implements IRenderer {
 		/* --------------------------------
 		 * write each row
 		 * --------------------------------*/
+		NumberFormatter formatter = NumberFormatter.getInstance(pattern);
 		for (DataRow row : myDataTable.getDataRows()) {
 			sb.append(row.getName());
 			sb.append(" | ");
 
 			for (int i = 0; i < row.getNumberValues(); i++) {
-				sb.append(Util.roundAsString(row.getValue(i), pattern));
+				formatter.appendTo(sb, row.getDouble(i));
 				sb.append(" | ");
 			}
 
 			sb.append("\n");
 		}
-		return sb.toString();
 	}
 
 	/*************************************************************************************
@@ -0,0 +1,258 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.renderer;
+
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import de.intranda.commons.chart.results.ChartLayout;
+import de.intranda.commons.chart.results.ChartTheme;
+import de.intranda.commons.chart.results.DataRow;
+import de.intranda.commons.chart.results.DataTable;
+import de.intranda.commons.chart.results.SvgChartWriter;
+import de.intranda.commons.chart.results.ChartDraw.Aggregation;
+import de.intranda.commons.chart.results.ChartDraw.ChartType;
+import de.intranda.commons.chart.results.ChartDraw.PointStyle;
+
+/*************************************************************************************
+ * A renderer for writing the {@link DataTable} as SVG chart
+ * 
+ * The chart has the same layout as the one of the {@link ChartRenderer}, but no
+ * image is painted and encoded: the SVG is streamed to the target, so it is cheap
+ * to deliver charts to a browser.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see SvgChartWriter
+ *************************************************************************************/
+public class SvgChartRenderer implements IRenderer {
+	// only used to measure the text, the font metrics are the same as in the images of the ChartRenderer
+	private static final BufferedImage MEASURE_IMAGE = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+
+	private DataTable myDataTable;
+	private int width = 1024;
+	private int height = 800;
+	private boolean showMeanValues = false;
+	private ChartType chartType = null;
+	private PointStyle pointStyle = null;
+	private Aggregation barAggregation = Aggregation.MAX;
+	private ChartTheme theme = ChartTheme.DEFAULT;
+	// layout of the last rendering, reused while table and settings are unchanged
+	private ChartLayout layout = null;
+	private Object[] layoutSettings = null;
+
+	public void setDataTable(DataTable inDataTable) {
+		myDataTable = inDataTable;
+	}
+
+	/*************************************************************************************
+	 * get rendered chart as SVG
+	 * 
+	 * @return String with the SVG document
+	 *************************************************************************************/
+	public Object getRendering() {
+		return Util.renderText(this);
+	}
+
+	/*************************************************************************************
+	 * write rendered chart as SVG encoded in UTF-8 to the given stream
+	 * 
+	 * @param out the stream to write to, it is flushed but not closed
+	 * @throws IOException
+	 *************************************************************************************/
+	public void renderTo(OutputStream out) throws IOException {
+		Util.renderTextTo(this, out);
+	}
+
+	/*************************************************************************************
+	 * write rendered chart as SVG to the given target
+	 * 
+	 * @param out the target to append the SVG to
+	 * @throws IOException
+	 *************************************************************************************/
+	public void renderTo(Appendable out) throws IOException {
+		if (myDataTable == null) {
+			throw new IllegalStateException("No DataTable set. No rendering possible.");
+		}
+
+		if (myDataTable.getDataRows().size() == 0) {
+			out.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"1\" height=\"1\"/>");
+			return;
+		}
+
+		Graphics2D g2d = MEASURE_IMAGE.createGraphics();
+		FontMetrics fm;
+		try {
+			g2d.setRenderingHint(java.awt.RenderingHints.KEY_ANTIALIASING, java.awt.RenderingHints.VALUE_ANTIALIAS_ON);
+			if (theme.getFont() != null) {
+				g2d.setFont(theme.getFont());
+			}
+			fm = g2d.getFontMetrics();
+		} finally {
+			g2d.dispose();
+		}
+
+		for (DataRow row : myDataTable.getDataRows()) {
+			row.setShowMeanValue(showMeanValues);
+		}
+		Object[] settings = { myDataTable, myDataTable.getModificationCount(), width, height, chartType, barAggregation, showMeanValues,
+				fm.getFont() };
+		if (!Arrays.equals(settings, layoutSettings)) {
+			layout = new ChartLayout(myDataTable, width, height, chartType, barAggregation, fm);
+			layoutSettings = settings;
+		}
+		new SvgChartWriter(layout, fm, theme, pointStyle).write(out);
+	}
+
+	/*************************************************************************************
+	 * getter for image width
+	 * 
+	 * @return width of the image
+	 *************************************************************************************/
+	public int getWidth() {
+		return width;
+	}
+
+	/*************************************************************************************
+	 * getter for image height
+	 * 
+	 * @return height of the image
+	 *************************************************************************************/
+	public int getHeight() {
+		return height;
+	}
+
+	/*************************************************************************************
+	 * setter for image size
+	 * 
+	 * @param width with size to set as width
+	 * @param height with size to set as height
+	 *************************************************************************************/
+	public void setSize(Integer width, Integer height) {
+		this.width = width;
+		this.height = height;
+	}
+
+	/*************************************************************************************
+	 * setter for showing mean values
+	 * 
+	 * @param inShowMeanValues for showing or hiding mean values in chart
+	 *************************************************************************************/
+	public void setShowMeanValues(Boolean inShowMeanValues) {
+		showMeanValues = inShowMeanValues;
+	}
+
+	/*************************************************************************************
+	 * setter for pattern of number format
+	 * 
+	 * @param inPattern to set
+	 *************************************************************************************/
+	public void setFormatPattern(String inPattern) {
+
+	}
+
+	/*************************************************************************************
+	 * getter for datatable
+	 * 
+	 * @return {@link DataTable}
+	 *************************************************************************************/
+	public DataTable getDataTable() {
+		return myDataTable;
+	}
+
+	/*************************************************************************************
+	 * getter for chartType
+	 * 
+	 * @return {@link ChartType}
+	 *************************************************************************************/
+	public ChartType getChartType() {
+		return chartType;
+	}
+
+	/*************************************************************************************
+	 * setter for chartType
+	 * 
+	 * @param chartType the ChartType to set
+	 *************************************************************************************/
+	public void setChartType(ChartType chartType) {
+		this.chartType = chartType;
+	}
+
+	/*************************************************************************************
+	 * getter for pointStyle
+	 * 
+	 * @return {@link PointStyle}
+	 *************************************************************************************/
+	public PointStyle getPointStyle() {
+		return pointStyle;
+	}
+
+	/*************************************************************************************
+	 * setter for pointStyle
+	 * 
+	 * @param pointStyle the PointStyle to set
+	 *************************************************************************************/
+	public void setPointStyle(PointStyle pointStyle) {
+		this.pointStyle = pointStyle;
+	}
+
+	/*************************************************************************************
+	 * getter for barAggregation
+	 * 
+	 * @return {@link Aggregation} of bar charts with more columns than pixels
+	 *************************************************************************************/
+	public Aggregation getBarAggregation() {
+		return barAggregation;
+	}
+
+	/*************************************************************************************
+	 * setter for barAggregation, bar charts with more columns than pixels show one bar
+	 * for each group of adjacent columns
+	 * 
+	 * @param barAggregation the Aggregation to set, null to write each column
+	 *************************************************************************************/
+	public void setBarAggregation(Aggregation barAggregation) {
+		this.barAggregation = barAggregation;
+	}
+
+	/*************************************************************************************
+	 * getter for theme
+	 * 
+	 * @return the {@link ChartTheme}
+	 *************************************************************************************/
+	public ChartTheme getTheme() {
+		return theme;
+	}
+
+	/*************************************************************************************
+	 * setter for theme, one theme can be shared by many renderers
+	 * 
+	 * @param theme the {@link ChartTheme} with colors, strokes and font, null for
+	 *        the default theme
+	 *************************************************************************************/
+	public void setTheme(ChartTheme theme) {
+		this.theme = theme == null ? ChartTheme.DEFAULT : theme;
+	}
+}
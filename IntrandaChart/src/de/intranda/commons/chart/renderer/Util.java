@@ -20,7 +20,11 @@
  */
 package de.intranda.commons.chart.renderer;
 
-import java.text.DecimalFormat;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
 /*************************************************************************************
  * A utility class
@@ -40,9 +44,41 @@ public class Util {
 	 * @return number formatted using the pattern as String
 	 *************************************************************************************/
 	public static String roundAsString(double inValue, String inPattern) {
-		DecimalFormat twoDForm = new DecimalFormat(inPattern);
-		return String.valueOf(twoDForm.format(inValue));
+		return NumberFormatter.getInstance(inPattern).format(inValue);
+	}
 
+	/*************************************************************************************
+	 * method for streaming the text of a renderer to an {@link OutputStream} as UTF-8
+	 * through a buffer of fixed size
+	 * 
+	 * @param renderer
+	 *            the text renderer
+	 * @param out
+	 *            the stream to write to, it is flushed but not closed
+	 * @throws IOException
+	 *************************************************************************************/
+	public static void renderTextTo(IRenderer renderer, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"), 8192);
+		renderer.renderTo(writer);
+		writer.flush();
+	}
+
+	/*************************************************************************************
+	 * method for getting the text of a renderer as String
+	 * 
+	 * @param renderer
+	 *            the text renderer
+	 * @return the rendered text
+	 *************************************************************************************/
+	public static String renderText(IRenderer renderer) {
+		StringBuilder sb = new StringBuilder();
+		try {
+			renderer.renderTo(sb);
+		} catch (IOException e) {
+			/* a StringBuilder does not throw IOExceptions */
+			throw new IllegalStateException(e);
+		}
+		return sb.toString();
 	}
 
 }
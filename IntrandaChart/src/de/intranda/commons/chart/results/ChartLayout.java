@@ -0,0 +1,642 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import java.awt.FontMetrics;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.intranda.commons.chart.results.ChartDraw.Aggregation;
+import de.intranda.commons.chart.results.ChartDraw.ChartType;
+
+/*************************************************************************************
+ * The layout of a chart: borders, grid, tick marks, legend and the values to draw, 
+ * computed once from a {@link DataTable}, the image size and the {@link FontMetrics} 
+ * of the font to paint with
+ * 
+ * A layout is immutable and can be shared by several threads and paintings of the 
+ * same chart. It refers to the painted {@link DataTable}, so it must not be used 
+ * anymore once that table has changed.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see ChartDraw#getLayout()
+ * @see ChartDraw#setLayout(ChartLayout)
+ *************************************************************************************/
+public final class ChartLayout {
+
+	// padding in the legend
+	static final int LEGENDPADDING = 5;
+
+	// right border
+	static final int BORDERRIGHT = 10;
+
+	// line charts with more values than this per pixel column are downsampled
+	private static final int LOD_POINTS_PER_PIXEL = 2;
+
+	private final DataTable dataTable;
+	private final ChartType chartType;
+
+	// dimensions of the whole graphic
+	private final int width;
+	private final int height;
+
+	// dimensions of the chart
+	private final int chartWidth;
+	private final int chartHeight;
+
+	// dimensions of the legend
+	private final int legendWidth;
+	private final int legendHeight;
+
+	// border values
+	private final int borderLeft;
+	private final int borderBottom;
+	private final int borderTop;
+
+	// chart bottom (= x-axis)
+	private final int chartBottom;
+
+	// distance between ticks on x-axis
+	private final int xGridWidth;
+	// distance between ticks on y-axis
+	private final int yGridWidth;
+	// text/numbers for the x and y ticks
+	private final List<String> xtickMarks;
+	private final List<String> ytickMarks;
+	// width of the longest mark on x- and y-axis in pixels
+	private final int xMaxTickMarkWidth;
+	private final int yMaxTickMarkWidth;
+	// show the text only on every n-th tick of the x-axis
+	private final int xMarkerTextDistance;
+
+	// next to last tick on y-axis
+	private final int yMaxTick;
+	// max. y-value shown in the chart
+	private final int yMaxValue;
+
+	// start of each entry in the legend
+	private final int[] legendEntryX;
+	private final int[] legendEntryY;
+
+	// indices of the values to draw of each row, null to draw all values
+	private final int[][] selectedValues;
+
+	// mean values of the rows of the given table before any binning, NaN for rows without mean line
+	private final double[] meanValues;
+
+	/************************************************************************************
+	 * compute the layout of a chart
+	 * 
+	 * @param inDataTable the {@link DataTable} to paint
+	 * @param width the width of the image
+	 * @param height the height of the image
+	 * @param chartType the type of the chart (bar or line), null for bar
+	 * @param barAggregation how bar charts with more columns than pixels combine 
+	 *        adjacent columns, null to paint each column
+	 * @param fm the {@link FontMetrics} of the font to paint with
+	 ************************************************************************************/
+	public ChartLayout(DataTable inDataTable, int width, int height, ChartType chartType, Aggregation barAggregation, FontMetrics fm) {
+		this.width = width;
+		this.height = height;
+		this.chartType = chartType == null ? ChartType.BAR : chartType;
+
+		// this is used to determine the width of strings in pixels
+		int w;
+		StringWidthCache widths = StringWidthCache.get(fm);
+
+		// the mean lines show the mean of all columns, not the one of the combined columns
+		List<DataRow> inRows = inDataTable.getDataRows();
+		meanValues = new double[inRows.size()];
+		double maxMeanValue = Double.NaN;
+		for (int i = 0; i < meanValues.length; i++) {
+			meanValues[i] = inRows.get(i).isShowMeanValue() ? inRows.get(i).getMeanValue() : Double.NaN;
+			if (meanValues[i] > maxMeanValue || Double.isNaN(maxMeanValue)) {
+				maxMeanValue = meanValues[i];
+			}
+		}
+
+		// group the columns of bar charts into buckets if there are more columns than pixels
+		DataTable table = inDataTable;
+		if (this.chartType == ChartType.BAR && barAggregation != null) {
+			int columns = table.getDataRows().get(0).getNumberValues();
+			int pixels = getChartWidth(table, maxMeanValue, width, widths);
+			int bucketSize = 1;
+			/* the binned table may need a wider left border, then the buckets are made larger */
+			while (columns > pixels && pixels > 0) {
+				bucketSize = Math.max(bucketSize + 1, (inDataTable.getDataRows().get(0).getNumberValues() + pixels - 1) / pixels);
+				table = ColumnBinning.aggregate(inDataTable, bucketSize, barAggregation);
+				columns = table.getDataRows().get(0).getNumberValues();
+				pixels = getChartWidth(table, maxMeanValue, width, widths);
+			}
+		}
+		dataTable = table;
+
+		// only show the title if it is non-empty
+		if (dataTable.getName().length() > 0) {
+			borderTop = 2 * fm.getHeight();
+		} else {
+			borderTop = 10;
+		}
+
+		/*
+		 * use the strings from the first DataRow for the labels on the x-axis determine maximum string width and set the
+		 * bottom border accordingly
+		 */
+		DataRow firstRow = dataTable.getDataRows().get(0);
+		List<String> xMarks = new ArrayList<String>(firstRow.getNumberValues());
+		for (int i = 0; i < firstRow.getNumberValues(); i++) {
+			xMarks.add(i, firstRow.getShortLabel(i));
+		}
+		xtickMarks = Collections.unmodifiableList(xMarks);
+		xMaxTickMarkWidth = firstRow.getMaxShortLabelWidth(widths);
+
+		/*
+		 * choose ticks on the y-axis determine maximum y-value and set yGridWidth
+		 */
+		double maxValue = getMaxValue(dataTable, maxMeanValue);
+		yMaxTick = getYMaxTick(maxValue);
+		int yGrid = yMaxTick / 10; /* define y grid width */
+
+		if (yGrid >= 50 && yGrid < 100) {
+			yGrid = 100;
+		} else if (yGrid >= 25 && yGrid < 50) {
+			yGrid = 50;
+		} else if (yGrid >= 10 && yGrid < 25) {
+			yGrid = 25;
+		} else if (yGrid >= 5 && yGrid < 10) {
+			yGrid = 10;
+		} else if (yGrid > 1 && yGrid < 5) {
+			yGrid = 5;
+		} else if (yGrid <= 1) {
+			yGrid = 1;
+		}
+		yGridWidth = yGrid;
+
+		yMaxValue = yMaxTick + (((int) Math.ceil(maxValue) - yMaxTick) / yGridWidth + 1) * yGridWidth;
+
+		// generate markers on the y-axis and determine width of the longest one
+		List<String> yMarks = new ArrayList<String>(yMaxValue / yGridWidth - 1);
+		for (int i = 0; i < yMaxValue / yGridWidth - 1; i++) {
+			yMarks.add(i, "" + (i + 1) * yGridWidth);
+		}
+		ytickMarks = Collections.unmodifiableList(yMarks);
+		yMaxTickMarkWidth = widths.stringWidth("" + yMaxTick);
+
+		borderLeft = getBorderLeft(xMaxTickMarkWidth, yMaxTickMarkWidth);
+
+		// compute width of the chart (without the borders)
+		chartWidth = width - borderLeft - BORDERRIGHT;
+
+		// set the grid width for the x-axis
+		xGridWidth = chartWidth / xtickMarks.size();
+
+		/*
+		 * set bottom border depending on the text on the x-axis (rotated by 45 degree or horizontal)
+		 */
+		if (isRotateXTickMarks()) {
+			borderBottom = 2 * xMaxTickMarkWidth / 3 + 2 * fm.getHeight();
+		} else {
+			borderBottom = 2 * fm.getHeight();
+		}
+
+		/*
+		 * distance between marker texts on the x-axis (show the text only on every n-th tick); The default is to show it on
+		 * each tick.
+		 */
+		int distance;
+		if (xGridWidth > 0) {
+			distance = fm.getHeight() / xGridWidth;
+		} else {
+			// more ticks than pixels
+			distance = (int) Math.ceil(fm.getHeight() * (double) xtickMarks.size() / chartWidth);
+		}
+		if (distance < 1) {
+			// show text on each tick
+			xMarkerTextDistance = 1;
+		} else {
+			/*
+			 * not enough room to show text on each tick; multiply distance by 2 to add some free space
+			 */
+			xMarkerTextDistance = distance * 2;
+		}
+
+		/*
+		 * if there is more than one SimpleDataSet a legend is to be shown; determine size of the legend
+		 */
+		int rows = dataTable.getDataRows().size();
+		int lWidth;
+		int lHeight;
+		if (rows > 1) {
+			/*
+			 * determine total string width of titles inside legend and set the legend width and height appropriately
+			 */
+			int totalLegendStringWidth = 0;
+			for (DataRow row : dataTable.getDataRows()) {
+				/*
+				 * border on each side of the legend + space for colored boxes + padding between different titles
+				 */
+				totalLegendStringWidth += LEGENDPADDING + fm.getHeight() + widths.stringWidth(row.getName()) + 2 * LEGENDPADDING;
+			}
+			if (totalLegendStringWidth > chartWidth) {
+				// do line wrapping inside legend
+				lWidth = chartWidth;
+
+				lHeight = LEGENDPADDING;
+				w = 0;
+				for (DataRow row : dataTable.getDataRows()) {
+					w += LEGENDPADDING + fm.getHeight() + widths.stringWidth(row.getName()) + 2 * LEGENDPADDING;
+					if (w > lWidth) {
+						// start a new line
+						lHeight += fm.getHeight();
+						w = LEGENDPADDING + fm.getHeight() + widths.stringWidth(row.getName()) + 2 * LEGENDPADDING;
+					}
+				}
+				// add space for the last line
+				lHeight += fm.getHeight() + LEGENDPADDING;
+			} else {
+				// only a single line inside legend
+				lWidth = totalLegendStringWidth;
+				lHeight = LEGENDPADDING + fm.getHeight() + LEGENDPADDING;
+			}
+
+			/*
+			 * place the entries of the legend, if the text is too long move it to the next line
+			 */
+			legendEntryX = new int[rows];
+			legendEntryY = new int[rows];
+			int entryXPos = width / 2 - lWidth / 2 + LEGENDPADDING;
+			int entryYPos = height - lHeight + fm.getHeight() / 2;
+			for (int d = 0; d < rows; d++) {
+				String name = dataTable.getDataRows().get(d).getName();
+				if (entryXPos + fm.getHeight() + widths.stringWidth(name) + 2 * LEGENDPADDING > width / 2 + lWidth / 2) {
+					// move on to the next line
+					entryXPos = width / 2 - lWidth / 2 + LEGENDPADDING;
+					entryYPos += fm.getHeight();
+				}
+				legendEntryX[d] = entryXPos;
+				legendEntryY[d] = entryYPos;
+				entryXPos += fm.getHeight() + widths.stringWidth(name) + 3 * LEGENDPADDING - 1;
+			}
+		} else {
+			// no legend
+			lWidth = 0;
+			lHeight = 0;
+			legendEntryX = new int[0];
+			legendEntryY = new int[0];
+		}
+
+		/* if there should be displayed some label at the x-axis */
+		if (isShowUnitLabel()) {
+			lHeight += LEGENDPADDING + fm.getHeight();
+		}
+		legendWidth = lWidth;
+		legendHeight = lHeight;
+
+		chartBottom = height - borderBottom - (legendHeight + 2 * LEGENDPADDING);
+		chartHeight = chartBottom - borderTop;
+
+		// level of detail: line charts draw only about as many values as there are pixels
+		selectedValues = new int[rows][];
+		if (this.chartType == ChartType.LINE) {
+			for (int d = 0; d < rows; d++) {
+				DataRow row = dataTable.getDataRows().get(d);
+				int size = row.getNumberValues();
+				if (size > LOD_POINTS_PER_PIXEL * chartWidth) {
+					selectedValues[d] = LargestTriangleThreeBuckets.select(row, size, LOD_POINTS_PER_PIXEL * chartWidth);
+				}
+			}
+		}
+	}
+
+	/************************************************************************************
+	 * get the highest value shown on the y-axis, the highest value of the table or 
+	 * of the mean lines
+	 ************************************************************************************/
+	private static double getMaxValue(DataTable table, double maxMeanValue) {
+		double maxValue = table.getMaxValue();
+		return maxMeanValue > maxValue ? maxMeanValue : maxValue;
+	}
+
+	/************************************************************************************
+	 * get the next to last tick on the y-axis
+	 ************************************************************************************/
+	private static int getYMaxTick(double maxValue) {
+		int powerOfTen = (int) Math.pow(10.0, Math.floor(Math.log10(maxValue)));
+		return (int) (Math.floor((maxValue / powerOfTen)) * powerOfTen);
+	}
+
+	/************************************************************************************
+	 * adjust left border according to text on the y-axis and text at the beginning 
+	 * of the x-axis
+	 ************************************************************************************/
+	private static int getBorderLeft(int xMaxTickMarkWidth, int yMaxTickMarkWidth) {
+		if (yMaxTickMarkWidth > 2 * xMaxTickMarkWidth / 3) {
+			return yMaxTickMarkWidth + 15;
+		} else {
+			return 2 * xMaxTickMarkWidth / 3 + 15;
+		}
+	}
+
+	/************************************************************************************
+	 * get the width of the chart without the borders, as the layout of the given 
+	 * table would have it
+	 ************************************************************************************/
+	private static int getChartWidth(DataTable table, double maxMeanValue, int width, StringWidthCache widths) {
+		int xMaxTickMarkWidth = table.getDataRows().get(0).getMaxShortLabelWidth(widths);
+		int yMaxTickMarkWidth = widths.stringWidth("" + getYMaxTick(getMaxValue(table, maxMeanValue)));
+		return width - getBorderLeft(xMaxTickMarkWidth, yMaxTickMarkWidth) - BORDERRIGHT;
+	}
+
+	/************************************************************************************
+	 * get the x-position of a value or tick on the x-axis
+	 * 
+	 * @param index the index of the value
+	 * @return the x-position in pixels
+	 ************************************************************************************/
+	public double getXPosition(int index) {
+		return borderLeft + 0.5 * xGridWidth + (long) index * (width - borderLeft - BORDERRIGHT) / xtickMarks.size();
+	}
+
+	/************************************************************************************
+	 * get the y-position of a value
+	 * 
+	 * @param value the value
+	 * @return the y-position in pixels
+	 ************************************************************************************/
+	public double getYPosition(double value) {
+		return chartBottom - (value * chartHeight / yMaxValue - 1);
+	}
+
+	/************************************************************************************
+	 * get the y-position of a tick on the y-axis
+	 * 
+	 * @param index the index of the tick
+	 * @return the y-position in pixels
+	 ************************************************************************************/
+	public int getYTickPosition(int index) {
+		return chartBottom - (index + 1) * yGridWidth * chartHeight / yMaxValue;
+	}
+
+	/************************************************************************************
+	 * get the indices of the values of a {@link DataRow} to draw, line charts with many 
+	 * more values than pixels are downsampled
+	 * 
+	 * @param rowIndex the index of the {@link DataRow}
+	 * @return the indices in ascending order or null if all values are drawn, the 
+	 *         array must not be changed
+	 ************************************************************************************/
+	int[] getSelectedValues(int rowIndex) {
+		return selectedValues[rowIndex];
+	}
+
+	/************************************************************************************
+	 * get the x-position where an entry of the legend starts
+	 * 
+	 * @param rowIndex the index of the {@link DataRow}
+	 * @return the x-position in pixels
+	 ************************************************************************************/
+	public int getLegendEntryX(int rowIndex) {
+		return legendEntryX[rowIndex];
+	}
+
+	/************************************************************************************
+	 * get the y-position of the middle of an entry of the legend
+	 * 
+	 * @param rowIndex the index of the {@link DataRow}
+	 * @return the y-position in pixels
+	 ************************************************************************************/
+	public int getLegendEntryY(int rowIndex) {
+		return legendEntryY[rowIndex];
+	}
+
+	/*************************************************************************************
+	 * check if the marks on the x-axis are rotated by 45 degree because there is not 
+	 * enough space to show them horizontal
+	 * 
+	 * @return boolean true, if the marks are rotated
+	 *************************************************************************************/
+	public boolean isRotateXTickMarks() {
+		return xMaxTickMarkWidth > xGridWidth / 2;
+	}
+
+	/*************************************************************************************
+	 * check if unit-Label should be drawn
+	 * 
+	 * @return boolean true, if label is shown
+	 *************************************************************************************/
+	public boolean isShowUnitLabel() {
+		return dataTable.getUnitLabel() != null && dataTable.getUnitLabel().length() > 0;
+	}
+
+	/*************************************************************************************
+	 * getter for the painted table, this is a copy with combined columns if a bar chart 
+	 * has more columns than pixels
+	 * 
+	 * @return the {@link DataTable}
+	 *************************************************************************************/
+	public DataTable getDataTable() {
+		return dataTable;
+	}
+
+	/*************************************************************************************
+	 * getter for chartType
+	 * 
+	 * @return the {@link ChartType}
+	 *************************************************************************************/
+	public ChartType getChartType() {
+		return chartType;
+	}
+
+	/*************************************************************************************
+	 * getter for image width
+	 * 
+	 * @return width of the image
+	 *************************************************************************************/
+	public int getWidth() {
+		return width;
+	}
+
+	/*************************************************************************************
+	 * getter for image height
+	 * 
+	 * @return height of the image
+	 *************************************************************************************/
+	public int getHeight() {
+		return height;
+	}
+
+	/*************************************************************************************
+	 * getter for chart width
+	 * 
+	 * @return width of the chart without the borders
+	 *************************************************************************************/
+	public int getChartWidth() {
+		return chartWidth;
+	}
+
+	/*************************************************************************************
+	 * getter for chart height
+	 * 
+	 * @return height of the chart without the borders
+	 *************************************************************************************/
+	public int getChartHeight() {
+		return chartHeight;
+	}
+
+	/*************************************************************************************
+	 * getter for chart bottom
+	 * 
+	 * @return y-position of the x-axis
+	 *************************************************************************************/
+	public int getChartBottom() {
+		return chartBottom;
+	}
+
+	/*************************************************************************************
+	 * getter for left border
+	 * 
+	 * @return width of the left border
+	 *************************************************************************************/
+	public int getBorderLeft() {
+		return borderLeft;
+	}
+
+	/*************************************************************************************
+	 * getter for right border
+	 * 
+	 * @return width of the right border
+	 *************************************************************************************/
+	public int getBorderRight() {
+		return BORDERRIGHT;
+	}
+
+	/*************************************************************************************
+	 * getter for top border
+	 * 
+	 * @return height of the top border with the title
+	 *************************************************************************************/
+	public int getBorderTop() {
+		return borderTop;
+	}
+
+	/*************************************************************************************
+	 * getter for bottom border
+	 * 
+	 * @return height of the border with the marks of the x-axis
+	 *************************************************************************************/
+	public int getBorderBottom() {
+		return borderBottom;
+	}
+
+	/*************************************************************************************
+	 * getter for legend width
+	 * 
+	 * @return width of the legend, 0 without legend
+	 *************************************************************************************/
+	public int getLegendWidth() {
+		return legendWidth;
+	}
+
+	/*************************************************************************************
+	 * getter for legend height
+	 * 
+	 * @return height of the legend including the unit label
+	 *************************************************************************************/
+	public int getLegendHeight() {
+		return legendHeight;
+	}
+
+	/*************************************************************************************
+	 * getter for x grid width
+	 * 
+	 * @return distance between ticks on the x-axis, 0 if there are more ticks than pixels
+	 *************************************************************************************/
+	public int getXGridWidth() {
+		return xGridWidth;
+	}
+
+	/*************************************************************************************
+	 * getter for y grid width
+	 * 
+	 * @return difference of the values of two ticks on the y-axis
+	 *************************************************************************************/
+	public int getYGridWidth() {
+		return yGridWidth;
+	}
+
+	/*************************************************************************************
+	 * getter for marks of the x-axis
+	 * 
+	 * @return unmodifiable list of the short labels
+	 *************************************************************************************/
+	public List<String> getXTickMarks() {
+		return xtickMarks;
+	}
+
+	/*************************************************************************************
+	 * getter for marks of the y-axis
+	 * 
+	 * @return unmodifiable list of the numbers
+	 *************************************************************************************/
+	public List<String> getYTickMarks() {
+		return ytickMarks;
+	}
+
+	/*************************************************************************************
+	 * getter for width of the longest mark on the x-axis
+	 * 
+	 * @return width in pixels
+	 *************************************************************************************/
+	public int getXMaxTickMarkWidth() {
+		return xMaxTickMarkWidth;
+	}
+
+	/*************************************************************************************
+	 * getter for distance of the marks on the x-axis
+	 * 
+	 * @return show the text only on every n-th tick
+	 *************************************************************************************/
+	public int getXMarkerTextDistance() {
+		return xMarkerTextDistance;
+	}
+
+	/*************************************************************************************
+	 * getter for highest value of the y-axis
+	 * 
+	 * @return max. y-value shown in the chart
+	 *************************************************************************************/
+	public int getYMaxValue() {
+		return yMaxValue;
+	}
+
+	/*************************************************************************************
+	 * getter for the mean value of a row, it is the mean of all columns of the row 
+	 * even if the painted table combines columns
+	 * 
+	 * @param row the index of the {@link DataRow}
+	 * @return the mean value or NaN if the row shows no mean value
+	 *************************************************************************************/
+	public double getMeanValue(int row) {
+		return meanValues[row];
+	}
+}
@@ -0,0 +1,377 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+
+import de.intranda.commons.chart.results.ChartDraw.PointStyle;
+
+/*************************************************************************************
+ * Paints a chart with a computed {@link ChartLayout} into a {@link Graphics2D}
+ * 
+ * The painter does not change the layout, several painters can paint the same 
+ * layout at the same time, each into its own {@link Graphics2D}.
+ * 
+ * Lines are drawn one by one with a single reused {@link Line2D}: with antialiasing 
+ * Java2D fills a straight line of a plain {@link BasicStroke} as parallelogram, 
+ * which is about twice as fast as stroking all lines of a series or the grid 
+ * collected in one path. Lines with the same stroke are drawn together, so the 
+ * stroke is changed only a few times per chart.
+ * 
+ * Colors, gradients and strokes come from a shared {@link ChartTheme} and all 
+ * shapes are reused, so apart from the text painting a chart allocates only a few 
+ * objects, no matter how many bars or points it has.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see ChartDraw
+ *************************************************************************************/
+final class ChartPainter {
+	private static final int LEGENDPADDING = ChartLayout.LEGENDPADDING;
+	private static final int BORDERRIGHT = ChartLayout.BORDERRIGHT;
+
+	private final ChartLayout layout;
+	private final DataTable dataTable;
+	private final Graphics2D g2d;
+	private final FontMetrics fm;
+	private final StringWidthCache widths;
+	private final ChartTheme theme;
+	private final PointStyle pointStyle;
+	// the shapes currently drawn
+	private final Line2D.Double line = new Line2D.Double();
+	private final Rectangle2D.Double rectangle = new Rectangle2D.Double();
+	private final Ellipse2D.Double ellipse = new Ellipse2D.Double();
+
+	/************************************************************************************
+	 * create a painter
+	 * 
+	 * @param layout the {@link ChartLayout} to paint
+	 * @param g2d the {@link Graphics2D}-object, where to paint
+	 * @param theme the {@link ChartTheme} with colors and strokes
+	 * @param pointStyle the style of points in the legend and line charts
+	 ************************************************************************************/
+	ChartPainter(ChartLayout layout, Graphics2D g2d, ChartTheme theme, PointStyle pointStyle) {
+		this.layout = layout;
+		this.dataTable = layout.getDataTable();
+		this.g2d = g2d;
+		this.fm = g2d.getFontMetrics();
+		this.widths = StringWidthCache.get(fm);
+		this.theme = theme;
+		this.pointStyle = pointStyle;
+	}
+
+	/************************************************************************************
+	 * paint the chart
+	 ************************************************************************************/
+	void paint() {
+		int width = layout.getWidth();
+		int height = layout.getHeight();
+		int chartWidth = layout.getChartWidth();
+		int chartHeight = layout.getChartHeight();
+		int chartBottom = layout.getChartBottom();
+		int xGridWidth = layout.getXGridWidth();
+		int yMaxValue = layout.getYMaxValue();
+		int columns = layout.getXTickMarks().size();
+		int rows = dataTable.getDataRows().size();
+
+		// set background color to white
+		g2d.setColor(Color.white);
+		g2d.fillRect(0, 0, width, height);
+
+		// read SimpleDataSets and draw the chart
+		for (int d = 0; d < rows; d++) {
+			DataRow row = dataTable.getDataRows().get(d);
+
+			// draw the bars
+			int size = row.getNumberValues();
+
+			switch (layout.getChartType()) {
+			case BAR:
+				// one gradient for all bars of the row
+				g2d.setPaint(new VerticalGradientPaint(layout.getBorderTop(), theme.getColor(d), (int) (2.0 * chartHeight), Color.white, theme
+						.getGradient(d)));
+				for (int i = 0; i < size; i++) {
+					drawBar(layout.getBorderLeft() + 0.25 * xGridWidth + (d + 0.5) * (0.5 * xGridWidth / rows) + i * chartWidth / columns, 0.5
+							* xGridWidth / rows, row.getDouble(i) * chartHeight / yMaxValue - 1);
+				}
+				break;
+			case LINE:
+				// level of detail: draw only the values selected by the layout
+				int[] selected = layout.getSelectedValues(d);
+				int points = selected == null ? size : selected.length;
+				Color color = theme.getColor(d);
+				g2d.setStroke(theme.getLineStroke());
+				double previousX = 0;
+				double previousY = 0;
+				for (int p = 0; p < points; p++) {
+					int i = selected == null ? p : selected[p];
+					double xpos = layout.getXPosition(i);
+					double ypos = layout.getYPosition(row.getDouble(i));
+					if (row.isShowPoint()) {
+						drawPoint(xpos, ypos, color, pointStyle);
+					}
+					if (p > 0) {
+						g2d.setColor(color);
+						line.setLine(previousX, previousY, xpos, ypos);
+						g2d.draw(line);
+					}
+					previousX = xpos;
+					previousY = ypos;
+				}
+				break;
+			}
+		}
+
+		// show meanValues as line in front of bars
+		for (int d = 0; d < rows; d++) {
+			double meanValue = layout.getMeanValue(d);
+			if (!Double.isNaN(meanValue)) {
+				drawMeanLine(meanValue * chartHeight / yMaxValue - 1, theme.getColor(d));
+			}
+		}
+
+		if (rows > 0) {
+			// draw axes and labels
+			drawAxis();
+
+			// show title if non-empty
+			if (dataTable.getName() != null && dataTable.getName().length() > 0) {
+				drawCenteredString(dataTable.getName(), width / 2, layout.getBorderTop() / 2);
+			}
+		}
+
+		if (rows > 1) {
+			// show the legend if there's more than one SimpleDataSet
+			drawLegend();
+		}
+
+		/* if there should be displayed some label at the x-axis */
+		if (layout.isShowUnitLabel()) {
+			drawUnitLabel();
+		}
+	}
+
+	/************************************************************************************
+	 * draw legend for chart
+	 ************************************************************************************/
+	private void drawLegend() {
+		int width = layout.getWidth();
+		int height = layout.getHeight();
+		int legendWidth = layout.getLegendWidth();
+
+		/* without unit-label, legend ist smaller */
+		int legendHeightDependingOnUnitLabel = layout.getLegendHeight();
+		if (layout.isShowUnitLabel()) {
+			legendHeightDependingOnUnitLabel -= LEGENDPADDING;
+			legendHeightDependingOnUnitLabel -= fm.getHeight();
+		}
+
+		// draw a box around the legend
+		g2d.setColor(Color.black);
+		rectangle.setRect(width / 2 - legendWidth / 2, height - legendHeightDependingOnUnitLabel - LEGENDPADDING, legendWidth,
+				legendHeightDependingOnUnitLabel);
+		g2d.draw(rectangle);
+
+		for (int d = 0; d < dataTable.getDataRows().size(); d++) {
+			DataRow row = dataTable.getDataRows().get(d);
+			// current position inside the legend in pixels
+			int entryXPos = layout.getLegendEntryX(d);
+			int entryYPos = layout.getLegendEntryY(d);
+
+			// draw a colored box
+			drawPoint(entryXPos + fm.getHeight() / 2, entryYPos, theme.getColor(d), pointStyle);
+			entryXPos += fm.getHeight();
+
+			// show the text
+			g2d.setColor(Color.black);
+			drawLeftAlignedString(row.getName(), entryXPos, entryYPos);
+		}
+	}
+
+	/************************************************************************************
+	 * draw unit label for chart
+	 ************************************************************************************/
+	private void drawUnitLabel() {
+		int entryXPos = layout.getWidth() / 2;
+		int entryYPos = layout.getHeight() - layout.getLegendHeight() - LEGENDPADDING + fm.getHeight() / 2;
+		// show the text
+		g2d.setColor(Color.black);
+		drawCenteredString(dataTable.getUnitLabel(), entryXPos, entryYPos);
+
+	}
+
+	/*************************************************************************************
+	 * Draw bar with the current paint.
+	 * 
+	 * @param xpos the x-position
+	 * @param width the width of the bar
+	 * @param barsize the height of the bar
+	 *************************************************************************************/
+	private void drawBar(double xpos, double width, double barsize) {
+		rectangle.setRect(xpos - 0.5 * width, layout.getChartBottom() - barsize, width, barsize);
+		g2d.fill(rectangle);
+	}
+
+	/*************************************************************************************
+	 * Draw point.
+	 * 
+	 * @param xpos the x-position
+	 * @param ypos the y-position
+	 * @param col the color of the point
+	 * @param style the style of the point (circle or square)
+	 *************************************************************************************/
+	private void drawPoint(double xpos, double ypos, Color col, PointStyle style) {
+		if (style == PointStyle.CIRCLE) {
+			g2d.setPaint(col);
+			ellipse.setFrame(xpos - fm.getHeight() / 4, ypos - fm.getHeight() / 4, fm.getHeight() / 2, fm.getHeight() / 2);
+			g2d.fill(ellipse);
+		} else if (style == PointStyle.SQUARE) {
+			g2d.setPaint(col);
+			rectangle.setRect(xpos - fm.getHeight() / 4, ypos - fm.getHeight() / 4, fm.getHeight() / 2, fm.getHeight() / 2);
+			g2d.fill(rectangle);
+		}
+	}
+
+	/************************************************************************************
+	 * Draw centered string.
+	 * 
+	 * @param str the string to show
+	 * @param xpos the x-position (middle of string)
+	 * @param ypos the y-position
+	 ************************************************************************************/
+	private void drawCenteredString(String str, double xpos, double ypos) {
+		g2d.drawString(str, (int) (xpos - widths.stringWidth(str) / 2.0), (int) (ypos + 0.5 * fm.getAscent() - 1));
+	}
+
+	/************************************************************************************
+	 * Draw right aligned string.
+	 * 
+	 * @param str the string to show
+	 * @param xpos the x-position (end of string)
+	 * @param ypos the y-position
+	 ************************************************************************************/
+	private void drawRightAlignedString(String str, double xpos, double ypos) {
+		g2d.drawString(str, (int) (xpos - widths.stringWidth(str)), (int) (ypos + 0.5 * fm.getAscent() - 1));
+	}
+
+	/************************************************************************************
+	 * Draw left aligned string.
+	 * 
+	 * @param str the string to show
+	 * @param xpos the x-position (start of string)
+	 * @param ypos the y-position
+	 ************************************************************************************/
+	private void drawLeftAlignedString(String str, double xpos, double ypos) {
+		g2d.drawString(str, (int) (xpos), (int) (ypos + 0.5 * fm.getAscent() - 1));
+	}
+
+	/************************************************************************************
+	 * Draw mean line
+	 * 
+	 * @param meanValue the mean value as double
+	 ************************************************************************************/
+	private void drawMeanLine(double meanValue, Color inColor) {
+		g2d.setColor(inColor);
+		g2d.setStroke(theme.getMeanStroke());
+		line.setLine(layout.getBorderLeft(), layout.getChartBottom() - meanValue, layout.getWidth() - BORDERRIGHT, layout.getChartBottom()
+				- meanValue);
+		g2d.draw(line);
+	}
+
+	/************************************************************************************
+	 * Draw axes
+	 ************************************************************************************/
+	private void drawAxis() {
+		// used for rotating text
+		AffineTransform at = g2d.getTransform();
+
+		// holds the number of ticks on x- or y-axis
+		int s;
+
+		int borderLeft = layout.getBorderLeft();
+		int chartBottom = layout.getChartBottom();
+		int right = layout.getWidth() - BORDERRIGHT;
+		List<String> xtickMarks = layout.getXTickMarks();
+		List<String> ytickMarks = layout.getYTickMarks();
+		int xMarkerTextDistance = layout.getXMarkerTextDistance();
+
+		g2d.setColor(Color.black);
+
+		// grid lines
+		g2d.setStroke(theme.getGridStroke());
+		s = ytickMarks.size();
+		for (int i = 0; i < s; i++) {
+			line.setLine(borderLeft, layout.getYTickPosition(i), right, layout.getYTickPosition(i));
+			g2d.draw(line);
+		}
+
+		// y-axis
+		g2d.setStroke(theme.getLineStroke());
+		line.setLine(borderLeft, chartBottom, borderLeft, layout.getBorderTop());
+		g2d.draw(line);
+
+		for (int i = 0; i < s; i++) {
+			int ypos = layout.getYTickPosition(i);
+
+			// ticks and numbers
+			line.setLine(borderLeft - 5, ypos, borderLeft + 5, ypos);
+			g2d.draw(line);
+			drawRightAlignedString(ytickMarks.get(i), borderLeft - fm.getHeight(), ypos);
+		}
+
+		// x-axis
+		line.setLine(borderLeft, chartBottom, right, chartBottom);
+		g2d.draw(line);
+
+		s = xtickMarks.size();
+		// with more ticks than pixels only the ticks with text are drawn
+		int tickStep = layout.getXGridWidth() > 0 ? 1 : xMarkerTextDistance;
+		for (int i = 0; i < s; i += tickStep) {
+			double xpos = layout.getXPosition(i);
+
+			// ticks
+			line.setLine(xpos, chartBottom + 7, xpos, chartBottom);
+			g2d.draw(line);
+
+			/*
+			 * rotate text by 45 degree if there's not enough space to show it horizontal
+			 */
+			if (layout.isRotateXTickMarks()) {
+				if (i % xMarkerTextDistance == 0) {
+					g2d.rotate(Math.toRadians(-45), xpos, chartBottom + fm.getHeight());
+					drawRightAlignedString(xtickMarks.get(i), xpos, chartBottom + fm.getHeight());
+					// restore the transform exactly, turning back would add up rounding errors
+					g2d.setTransform(at);
+				}
+			} else {
+				drawCenteredString(xtickMarks.get(i), xpos, chartBottom + fm.getHeight());
+			}
+		}
+	}
+}
@@ -0,0 +1,281 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.image.DataBuffer;
+import java.awt.image.IndexColorModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/*************************************************************************************
+ * The colors, strokes and font of charts
+ * 
+ * A theme is immutable and can be shared by any number of charts and threads. The 
+ * gradient of each color to white used for the bars is computed once here instead 
+ * of for each painted bar, as well as the palette for images with indexed colors.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see ChartDraw#setTheme(ChartTheme)
+ *************************************************************************************/
+public final class ChartTheme {
+
+	// entries of the palette for gray shades between black and white, used for antialiased text
+	private static final int PALETTE_GRAYS = 14;
+
+	private static final BasicStroke LINE_STROKE = new BasicStroke();
+	private static final BasicStroke GRID_STROKE = new BasicStroke(0.0f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10.0f,
+			new float[] { 2.0f }, 0.0f);
+	private static final BasicStroke MEAN_STROKE = new BasicStroke(1.0f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10.0f,
+			new float[] { 7.0f }, 0.0f);
+
+	/**
+	 * the default theme with ten colors and the font of the {@link java.awt.Graphics2D}
+	 */
+	public static final ChartTheme DEFAULT = new ChartTheme(Arrays.asList(new Color(200, 0, 0), // red
+			new Color(0, 0, 200), // blue
+			new Color(250, 220, 50), // yellow
+			new Color(0, 130, 80), // green
+			new Color(150, 0, 210), // violett
+			new Color(240, 140, 0), // orange
+			new Color(50, 150, 240), // light blue
+			new Color(70, 40, 0), // brown
+			new Color(230, 50, 220), // pink
+			new Color(0, 190, 150))); // mint green
+
+	private final List<Color> colors;
+	private final int[][] gradients;
+	private final Font font;
+	private final BasicStroke lineStroke;
+	private final BasicStroke gridStroke;
+	private final BasicStroke meanStroke;
+	private final int[] palette;
+	private final IndexColorModel indexColorModel;
+	private volatile short[] inverseColorMap = null;
+
+	/************************************************************************************
+	 * constructor for a theme with the given colors and the default strokes
+	 * 
+	 * @param colors the colors of the {@link DataRow}s, they are repeated if there are 
+	 *        more rows than colors
+	 ************************************************************************************/
+	public ChartTheme(List<Color> colors) {
+		this(colors, null, LINE_STROKE, GRID_STROKE, MEAN_STROKE);
+	}
+
+	/************************************************************************************
+	 * constructor for a theme
+	 * 
+	 * @param colors the colors of the {@link DataRow}s, they are repeated if there are 
+	 *        more rows than colors
+	 * @param font the font of all text or null for the font of the {@link java.awt.Graphics2D}
+	 * @param lineStroke the stroke of axes, ticks and lines of line charts
+	 * @param gridStroke the stroke of the grid lines
+	 * @param meanStroke the stroke of the mean value lines
+	 ************************************************************************************/
+	public ChartTheme(List<Color> colors, Font font, BasicStroke lineStroke, BasicStroke gridStroke, BasicStroke meanStroke) {
+		if (colors == null || colors.isEmpty()) {
+			throw new IllegalArgumentException("A ChartTheme needs at least one color.");
+		}
+		if (lineStroke == null || gridStroke == null || meanStroke == null) {
+			throw new IllegalArgumentException("The strokes of a ChartTheme must not be null.");
+		}
+		this.colors = Collections.unmodifiableList(new ArrayList<Color>(colors));
+		this.font = font;
+		this.lineStroke = lineStroke;
+		this.gridStroke = gridStroke;
+		this.meanStroke = meanStroke;
+
+		gradients = new int[this.colors.size()][];
+		for (int i = 0; i < gradients.length; i++) {
+			gradients[i] = VerticalGradientPaint.createColors(this.colors.get(i), Color.white);
+		}
+		palette = createPalette(gradients);
+		indexColorModel = new IndexColorModel(8, palette.length, palette, 0, false, -1, DataBuffer.TYPE_BYTE);
+	}
+
+	/************************************************************************************
+	 * Choose color for specific {@link DataRow}
+	 * 
+	 * @param index the index of the {@link DataRow}
+	 * @return the color as {@link Color}
+	 ************************************************************************************/
+	public Color getColor(int index) {
+		return colors.get(index % colors.size());
+	}
+
+	/************************************************************************************
+	 * get the gradient from the color of a {@link DataRow} to white
+	 * 
+	 * @param index the index of the {@link DataRow}
+	 * @return the table of colors, it must not be changed
+	 ************************************************************************************/
+	int[] getGradient(int index) {
+		return gradients[index % gradients.length];
+	}
+
+	/************************************************************************************
+	 * get the palette for charts painted into images with indexed colors: white, black, 
+	 * shades of gray for text and for each color a ramp of its gradient to white, which 
+	 * also holds the antialiased edges on white background; the 240 entries for the 
+	 * ramps are shared equally by the colors, so the ramps of themes with many colors 
+	 * are coarser and beyond 240 colors the remaining ones are missing from the palette
+	 * 
+	 * @return the {@link IndexColorModel} with up to 256 opaque colors
+	 ************************************************************************************/
+	public IndexColorModel getIndexColorModel() {
+		return indexColorModel;
+	}
+
+	/************************************************************************************
+	 * get the nearest entry of the palette for a color, the colors are compared with 5 
+	 * bits per channel and the result for each of these colors is kept, the colors of 
+	 * the palette themselves always get their own entry
+	 * 
+	 * @param rgb the color as RGB value
+	 * @return the index in the palette of {@link #getIndexColorModel()}
+	 ************************************************************************************/
+	int getPaletteIndex(int rgb) {
+		short[] map = inverseColorMap;
+		if (map == null) {
+			// the entry plus one for each color with 5 bits per channel, 0 if not looked up yet
+			map = new short[32768];
+			for (int i = palette.length - 1; i >= 0; i--) {
+				map[cell(palette[i])] = (short) (i + 1);
+			}
+			inverseColorMap = map;
+		}
+		int cell = cell(rgb);
+		int index = map[cell] - 1;
+		if (index < 0) {
+			// the middle of the cell
+			int r = (cell >> 10) << 3 | 4;
+			int g = (cell >> 5 & 0x1F) << 3 | 4;
+			int b = (cell & 0x1F) << 3 | 4;
+			int bestDistance = Integer.MAX_VALUE;
+			for (int i = 0; i < palette.length; i++) {
+				int dr = (palette[i] >> 16 & 0xFF) - r;
+				int dg = (palette[i] >> 8 & 0xFF) - g;
+				int db = (palette[i] & 0xFF) - b;
+				int distance = dr * dr + dg * dg + db * db;
+				if (distance < bestDistance) {
+					bestDistance = distance;
+					index = i;
+				}
+			}
+			map[cell] = (short) (index + 1);
+		}
+		return index;
+	}
+
+	private static int cell(int rgb) {
+		return (rgb >> 9 & 0x7C00) | (rgb >> 6 & 0x3E0) | (rgb >> 3 & 0x1F);
+	}
+
+	/************************************************************************************
+	 * create the colors of the palette
+	 * 
+	 * @see #getIndexColorModel()
+	 ************************************************************************************/
+	private static int[] createPalette(int[][] gradients) {
+		int[] palette = new int[256];
+		int size = 0;
+		palette[size++] = Color.white.getRGB();
+		palette[size++] = Color.black.getRGB();
+		for (int i = 1; i <= PALETTE_GRAYS; i++) {
+			int gray = 255 * i / (PALETTE_GRAYS + 1);
+			palette[size++] = 0xFF000000 | gray << 16 | gray << 8 | gray;
+		}
+		int steps = Math.max(1, (palette.length - size) / gradients.length);
+		for (int c = 0; c < gradients.length && size + steps <= palette.length; c++) {
+			for (int i = 0; i < steps; i++) {
+				palette[size++] = gradients[c][256 * i / steps];
+			}
+		}
+		return Arrays.copyOf(palette, size);
+	}
+
+	/************************************************************************************
+	 * getter for colors
+	 * 
+	 * @return unmodifiable list of {@link Color}s
+	 ************************************************************************************/
+	public List<Color> getColors() {
+		return colors;
+	}
+
+	/************************************************************************************
+	 * getter for font
+	 * 
+	 * @return the {@link Font} or null for the font of the {@link java.awt.Graphics2D}
+	 ************************************************************************************/
+	public Font getFont() {
+		return font;
+	}
+
+	/************************************************************************************
+	 * getter for lineStroke
+	 * 
+	 * @return the stroke of axes, ticks and lines of line charts
+	 ************************************************************************************/
+	public BasicStroke getLineStroke() {
+		return lineStroke;
+	}
+
+	/************************************************************************************
+	 * getter for gridStroke
+	 * 
+	 * @return the stroke of the grid lines
+	 ************************************************************************************/
+	public BasicStroke getGridStroke() {
+		return gridStroke;
+	}
+
+	/************************************************************************************
+	 * getter for meanStroke
+	 * 
+	 * @return the stroke of the mean value lines
+	 ************************************************************************************/
+	public BasicStroke getMeanStroke() {
+		return meanStroke;
+	}
+
+	public int hashCode() {
+		return colors.hashCode() * 31 + (font == null ? 0 : font.hashCode());
+	}
+
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ChartTheme)) {
+			return false;
+		}
+		ChartTheme other = (ChartTheme) obj;
+		return colors.equals(other.colors) && (font == null ? other.font == null : font.equals(other.font)) && lineStroke.equals(other.lineStroke)
+				&& gridStroke.equals(other.gridStroke) && meanStroke.equals(other.meanStroke);
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.intranda.commons.chart.results.ChartDraw.Aggregation;
+
+/*************************************************************************************
+ * ColumnBinning groups adjacent columns of a {@link DataTable} into buckets, so that 
+ * a bar chart with more columns than pixels is painted with one bar per bucket
+ * 
+ * All buckets have the same number of columns, only the last one may have fewer. 
+ * Each bucket is labelled with the label of its first column, its value is the sum, 
+ * the mean or the maximum of its columns.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see ChartDraw#setBarAggregation(Aggregation)
+ *************************************************************************************/
+final class ColumnBinning {
+
+	private ColumnBinning() {
+	}
+
+	/************************************************************************************
+	 * create a table with the columns of the given table grouped into buckets
+	 * 
+	 * @param table the {@link DataTable} with at least one row
+	 * @param bucketSize the number of columns of each bucket, at least 2
+	 * @param aggregation how to combine the values of a bucket
+	 * @return the new {@link DataTable}
+	 ************************************************************************************/
+	static DataTable aggregate(DataTable table, int bucketSize, Aggregation aggregation) {
+		List<DataRow> rows = table.getDataRows();
+		DataRow firstRow = rows.get(0);
+		int columns = firstRow.getNumberValues();
+		int buckets = (columns + bucketSize - 1) / bucketSize;
+		int[] starts = new int[buckets + 1];
+		for (int b = 0; b <= buckets; b++) {
+			starts[b] = (int) Math.min((long) b * bucketSize, columns);
+		}
+
+		String[] labels = new String[buckets];
+		Set<String> used = new HashSet<String>();
+		for (int b = 0; b < buckets; b++) {
+			String label = firstRow.getLabel(starts[b]);
+			if (label == null) {
+				label = "-";
+			}
+			/* labels of inverted tables are row names, which may repeat */
+			for (int n = 2; !used.add(label); n++) {
+				label = firstRow.getLabel(starts[b]) + " (" + n + ")";
+			}
+			labels[b] = label;
+		}
+
+		DataTableBuilder builder = new DataTableBuilder(table.getName(), labels);
+		for (DataRow row : rows) {
+			double[] values = new double[buckets];
+			for (int b = 0; b < buckets; b++) {
+				double value = aggregation == Aggregation.MAX ? Double.NEGATIVE_INFINITY : 0;
+				for (int i = starts[b]; i < starts[b + 1]; i++) {
+					if (aggregation == Aggregation.MAX) {
+						value = Math.max(value, row.getDouble(i));
+					} else {
+						value += row.getDouble(i);
+					}
+				}
+				if (aggregation == Aggregation.MEAN) {
+					value /= starts[b + 1] - starts[b];
+				}
+				values[b] = value;
+			}
+			builder.addRow(row.getName(), values);
+		}
+
+		DataTable binned = builder.build();
+		binned.setSubname(table.getSubname());
+		binned.setUnitLabel(table.getUnitLabel());
+		for (int i = 0; i < rows.size(); i++) {
+			binned.getDataRows().get(i).setShowMeanValue(rows.get(i).isShowMeanValue());
+			binned.getDataRows().get(i).setShowPoint(rows.get(i).isShowPoint());
+		}
+		return binned;
+	}
+}
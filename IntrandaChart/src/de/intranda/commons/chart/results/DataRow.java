@@ -21,13 +21,20 @@
 package de.intranda.commons.chart.results;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.List;
 
 /*************************************************************************************
  * A DataRow object contains one one row of data consisting of
  * a name, the labels, the values (Doubles) 
  * 
+ * The values are stored column-wise in a primitive array, the labels are indexed
+ * by a {@link LabelIndex}, so adding and looking up values by label is done in 
+ * constant time. Rows of a {@link DataTable} share the label index of the table, 
+ * columns without a value in this row are read as 0
+ * 
+ * Count, sum, sum of squares, minimum and maximum are updated with every written value,
+ * so the statistical getters do not need to scan the values
+ * 
  * @author Karsten Köhler
  * @author Hendrik Söhnholz
  * @author Steffen Hankiewicz
@@ -43,8 +50,12 @@ public class DataRow implements Serializable {
 	private boolean showPoint = true;
 	private final static int maxShortNameLength = 30;
 
-	private List<String> labels;
-	private List<Double> values;
+	private final static int initialCapacity = 16;
+
+	private LabelIndex labels;
+	private double[] values;
+	private RunningStatistics statistics;
+	private DataTable table;
 
 	/************************************************************************************
 	 * public constructor, the name is set here
@@ -52,11 +63,40 @@ public class DataRow implements Serializable {
 	 * @param name
 	 ************************************************************************************/
 	public DataRow(String name) {
+		this(name, new LabelIndex());
+	}
+
+	/************************************************************************************
+	 * constructor for a row using the given (possibly shared) label index
+	 * 
+	 * @param name
+	 * @param labels the {@link LabelIndex} to use for this row
+	 ************************************************************************************/
+	DataRow(String name, LabelIndex labels) {
 		super();
 		this.name = name;
 		this.showMeanValue = false;
-		this.labels = new ArrayList<String>();
-		this.values = new ArrayList<Double>();
+		this.labels = labels;
+		this.values = new double[Math.max(initialCapacity, labels.size())];
+		this.statistics = new RunningStatistics();
+	}
+
+	/************************************************************************************
+	 * constructor for a row that takes over a complete array of values, one for each
+	 * label of the label index
+	 * 
+	 * @param name
+	 * @param labels the {@link LabelIndex} to use for this row
+	 * @param values the values, the array is used directly and not copied
+	 ************************************************************************************/
+	DataRow(String name, LabelIndex labels, double[] values) {
+		super();
+		this.name = name;
+		this.showMeanValue = false;
+		this.labels = labels;
+		this.values = values;
+		this.statistics = new RunningStatistics();
+		this.statistics.add(values, values.length);
 	}
 
 	/************************************************************************************
@@ -66,14 +106,55 @@ public class DataRow implements Serializable {
 	 * @param inValue the value as a Double
 	 ************************************************************************************/
 	public void addValue(String inLabel, Double inValue) {
+		addValue(inLabel, inValue.doubleValue());
+	}
+
+	/************************************************************************************
+	 * add a value to this {@link DataRow} without boxing it, an existing value with 
+	 * the same label is replaced
+	 * 
+	 * @param inLabel the label for the value
+	 * @param inValue the value as a primitive double
+	 ************************************************************************************/
+	public void addValue(String inLabel, double inValue) {
 		if (inLabel == null) {
 			inLabel = "-";
 		}
-		if (labels.contains(inLabel)) {
-			values.set(labels.indexOf(inLabel), inValue);
-		} else {
-			labels.add(inLabel);
-			values.add(inValue);
+		setDouble(labels.add(inLabel), inValue);
+	}
+
+	/************************************************************************************
+	 * set the value of a column, the column has to exist in the label index
+	 * 
+	 * @param index column index of the value
+	 * @param inValue the value as a primitive double
+	 ************************************************************************************/
+	void setDouble(int index, double inValue) {
+		ensureCapacity(index + 1);
+		/* columns up to the new one that are not counted yet are zeros */
+		long zeros = index + 1 - statistics.getCount();
+		if (zeros > 0) {
+			statistics.addZeros(zeros);
+		}
+		double oldValue = values[index];
+		values[index] = inValue;
+		statistics.replace(oldValue, inValue);
+		if (table != null) {
+			table.valueWritten(zeros, oldValue, inValue);
+		}
+	}
+
+	/************************************************************************************
+	 * grow the value array so that it can hold at least the given number of values
+	 * 
+	 * @param minCapacity the number of values needed
+	 ************************************************************************************/
+	private void ensureCapacity(int minCapacity) {
+		if (minCapacity > values.length) {
+			int newCapacity = Math.max(values.length * 2, minCapacity);
+			double[] newValues = new double[newCapacity];
+			System.arraycopy(values, 0, newValues, 0, values.length);
+			values = newValues;
 		}
 	}
 
@@ -104,17 +185,30 @@ public class DataRow implements Serializable {
 	}
 
 	/************************************************************************************
-	 * getter for shortened label
+	 * getter for shortened label, each label is shortened only once in the label 
+	 * index shared by all rows of a table
 	 * 
 	 * @param index for index of label to get
 	 * @return name as String
 	 ************************************************************************************/
 	public String getShortLabel(int index) {
-		String myLabel = getLabel(index);
-		if (myLabel != null && myLabel.length() > maxShortNameLength) {
-			return myLabel.substring(0, maxShortNameLength) + "...";
+		if (index < 0 || index >= labels.size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + labels.size());
+		}
+		return labels.getShortLabel(index);
+	}
+
+	/************************************************************************************
+	 * shorten a label to at most 30 characters and "..."
+	 * 
+	 * @param label the label
+	 * @return the label or its beginning with "..."
+	 ************************************************************************************/
+	static String shortenLabel(String label) {
+		if (label != null && label.length() > maxShortNameLength) {
+			return label.substring(0, maxShortNameLength) + "...";
 		} else {
-			return myLabel;
+			return label;
 		}
 	}
 
@@ -125,7 +219,23 @@ public class DataRow implements Serializable {
 	 * @return value of the element
 	 ************************************************************************************/
 	public Double getValue(int index) {
-		return values.get(index);
+		return getDouble(index);
+	}
+
+	/************************************************************************************
+	 * get value of an element without boxing it
+	 * 
+	 * @param index list index of the element
+	 * @return value of the element as primitive double
+	 ************************************************************************************/
+	public double getDouble(int index) {
+		if (index < 0 || index >= labels.size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + labels.size());
+		}
+		if (index >= values.length) {
+			return 0;
+		}
+		return values[index];
 	}
 
 	/************************************************************************************
@@ -135,11 +245,21 @@ public class DataRow implements Serializable {
 	 * @return value of the element
 	 ************************************************************************************/
 	public Double getValue(String inLabel) {
-		if (labels.contains(inLabel)) {
-			return values.get(labels.indexOf(inLabel));
-		} else {
-			return new Double(0);
+		return getDouble(inLabel);
+	}
+
+	/************************************************************************************
+	 * get value of an element without boxing it
+	 * 
+	 * @param inLabel label of the element
+	 * @return value of the element as primitive double, 0 if the label is unknown
+	 ************************************************************************************/
+	public double getDouble(String inLabel) {
+		int index = labels.indexOf(inLabel);
+		if (index < 0 || index >= values.length) {
+			return 0;
 		}
+		return values[index];
 	}
 
 	/************************************************************************************
@@ -148,22 +268,37 @@ public class DataRow implements Serializable {
 	 * @return number of values
 	 ************************************************************************************/
 	public Integer getNumberValues() {
-		return values.size();
+		return labels.size();
 	}
 
 	/************************************************************************************
 	 * get maximum value of this {@link DataRow}
 	 * 
-	 * @return maximum y-value
+	 * @return maximum y-value, at least 0
 	 ************************************************************************************/
 	public Double getMaxValue() {
-		double max = 0;
-		for (Double d : values) {
-			if (d > max) {
-				max = d;
-			}
+		RunningStatistics stats = getStatistics();
+		if (stats.getCount() > 0 && stats.getMax() > 0) {
+			return stats.getMax();
+		}
+		return 0.0;
+	}
+
+	/************************************************************************************
+	 * get minimum value of this {@link DataRow}
+	 * 
+	 * @return minimum y-value, 0 for an empty row
+	 ************************************************************************************/
+	public Double getMinValue() {
+		RunningStatistics stats = getStatistics();
+		if (stats.getCount() == 0) {
+			return 0.0;
 		}
-		return max;
+		if (stats.getCount() < getNumberValues() && stats.getMin() > 0) {
+			/* columns without value in this row */
+			return 0.0;
+		}
+		return stats.getMin();
 	}
 
 	/************************************************************************************
@@ -172,11 +307,40 @@ public class DataRow implements Serializable {
 	 * @return mean value as double
 	 ************************************************************************************/
 	public Double getMeanValue() {
-		double sum = 0;
-		for (Double d : values) {
-			sum += d;
+		return getStatistics().getSum() / getNumberValues();
+	}
+
+	/************************************************************************************
+	 * calculate standard deviation of all values
+	 * 
+	 * @return standard deviation as double
+	 ************************************************************************************/
+	public Double getStandardDeviation() {
+		return getStatistics().getStandardDeviation(getNumberValues());
+	}
+
+	/************************************************************************************
+	 * getter for the statistics of all written values, minimum and maximum are
+	 * rescanned here if they got invalid by overwriting values
+	 * 
+	 * @return {@link RunningStatistics}
+	 ************************************************************************************/
+	RunningStatistics getStatistics() {
+		if (!statistics.isExtremesValid()) {
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			int counted = (int) statistics.getCount();
+			for (int i = 0; i < counted; i++) {
+				if (values[i] < min) {
+					min = values[i];
+				}
+				if (values[i] > max) {
+					max = values[i];
+				}
+			}
+			statistics.setExtremes(min, max);
 		}
-		return sum / getNumberValues();
+		return statistics;
 	}
 
 	/************************************************************************************
@@ -199,6 +363,9 @@ public class DataRow implements Serializable {
 	 **************************************************************************************/
 	public void setName(String name) {
 		this.name = name;
+		if (table != null) {
+			table.modified();
+		}
 	}
 
 	/*************************************************************************************
@@ -228,11 +395,49 @@ public class DataRow implements Serializable {
 	}
 
 	public Boolean isContainsLabel(String inLabel) {
-		return labels.contains(inLabel);
+		return labels.indexOf(inLabel) >= 0;
 	}
 
 	public List<String> getLabels() {
+		return labels.asList();
+	}
+
+	/************************************************************************************
+	 * get the width of the widest shortened label of this row
+	 * 
+	 * @param widths the {@link StringWidthCache} of the font
+	 * @return the width in pixels
+	 ************************************************************************************/
+	int getMaxShortLabelWidth(StringWidthCache widths) {
+		return labels.getMaxShortLabelWidth(widths);
+	}
+
+	/************************************************************************************
+	 * getter for the label index of this row
+	 * 
+	 * @return {@link LabelIndex}
+	 ************************************************************************************/
+	LabelIndex getLabelIndex() {
 		return labels;
 	}
 
+	/************************************************************************************
+	 * getter for the {@link DataTable} this row belongs to
+	 * 
+	 * @return the table or null
+	 ************************************************************************************/
+	DataTable getTable() {
+		return table;
+	}
+
+	/************************************************************************************
+	 * setter for the {@link DataTable} this row belongs to, the table gets informed 
+	 * about all written values
+	 * 
+	 * @param table the table or null
+	 ************************************************************************************/
+	void setTable(DataTable table) {
+		this.table = table;
+	}
+
 }
@@ -30,6 +30,12 @@ import java.util.List;
  * 
  * A DataTable consists of - a name - a list of {@link DataRow}
  * 
+ * All rows of a DataTable share one {@link LabelIndex} as column dictionary, 
+ * missing values of a row are not stored but read as 0. If the first row is a 
+ * {@link SlidingWindowDataRow}, its window gives the columns of the table. The rows 
+ * report every written value to their table, so the statistics of the whole table 
+ * are kept up to date as well
+ * 
  * @author Karsten Köhler
  * @author Hendrik Söhnholz
  * @author Steffen Hankiewicz
@@ -43,9 +49,12 @@ public class DataTable implements Serializable {
 	private String subname;
 	private String unitLabel;
 	private List<DataRow> dataRows;
+	private LabelIndex columns;
+	private RunningStatistics statistics;
 	private boolean showableInTable = true;
 	private boolean showableInChart = true;
 	private boolean showableInPieChart = false;
+	private transient long modificationCount;
 	
 	/************************************************************************************
 	 * public constructor, the name is set here
@@ -59,6 +68,7 @@ public class DataTable implements Serializable {
 		this.subname = "";
 		unitLabel = "";
 		dataRows = new ArrayList<DataRow>();
+		statistics = new RunningStatistics();
 	}
 
 	/** usually the header is derived from the String value of the value pairs in the added DataRows
@@ -70,7 +80,11 @@ public class DataTable implements Serializable {
 	 * @param headerRow
 	 */
 	public void removeDataRow(DataRow deleteRow){
-		dataRows.remove(deleteRow);
+		if (dataRows.remove(deleteRow)) {
+			statistics.remove(deleteRow.getStatistics());
+			deleteRow.setTable(null);
+			modified();
+		}
 	}
 	
 	/************************************************************************************
@@ -80,44 +94,125 @@ public class DataTable implements Serializable {
 	 *            the {@link DataRow} to add
 	 ************************************************************************************/
 	public void addDataRow(DataRow newRow) {
-		if (dataRows.size() > 0) {
-			/* fill missing columns in other rows */
-			for (DataRow row : dataRows) {
-				for (String label : newRow.getLabels()) {
-//					System.out.println("label coming from row " + row.getName() + ": " + label);
-					if (!row.isContainsLabel(label)) {
-						row.addValue(label, new Double(0));
-					}
-				}
+		DataRow tempRow = newRow;
+		if (dataRows.size() == 0 && newRow.getTable() == null) {
+			/* the first row defines the columns */
+			columns = newRow.getLabelIndex();
+		} else if (newRow.getLabelIndex() == columns && newRow.getTable() == null) {
+			/* row was created for the columns of this table already */
+		} else {
+			if (dataRows.size() == 0) {
+				columns = new LabelIndex();
 			}
-
-			/* fill missing columns in new row */
-			DataRow tempRow = new DataRow(newRow.getName());
+			/* copy new row into the shared columns, unknown labels extend all rows */
+			tempRow = columns.createRow(newRow.getName());
 			tempRow.setShowMeanValue(newRow.isShowMeanValue());
-			for (String label : dataRows.get(0).getLabels()) {
-//				System.out.println("label check: " + label);
-				tempRow.addValue(label, newRow.getValue(label));
+			tempRow.setShowPoint(newRow.isShowPoint());
+			for (int i = 0; i < newRow.getNumberValues(); i++) {
+				tempRow.setDouble(columns.add(newRow.getLabel(i)), newRow.getDouble(i));
 			}
-			dataRows.add(tempRow);
-		} else {
-			dataRows.add(newRow);
 		}
+		dataRows.add(tempRow);
+		tempRow.setTable(this);
+		statistics.add(tempRow.getStatistics());
+		modified();
+	}
+
+	/************************************************************************************
+	 * update the table statistics after a value was written to one of the rows
+	 * 
+	 * @param zeros number of zeros counted before writing the value
+	 * @param oldValue the value before
+	 * @param newValue the value after
+	 ************************************************************************************/
+	void valueWritten(long zeros, double oldValue, double newValue) {
+		if (zeros > 0) {
+			statistics.addZeros(zeros);
+		}
+		statistics.replace(oldValue, newValue);
+		modified();
+	}
+
+	/************************************************************************************
+	 * count a change of the rows, values or names of this table
+	 ************************************************************************************/
+	void modified() {
+		modificationCount++;
+	}
+
+	/************************************************************************************
+	 * getter for the number of changes of rows, values and names made through this 
+	 * table and its rows, renderers compare it to find out if something they computed 
+	 * for this table before is still valid
+	 * 
+	 * @return number of changes
+	 ************************************************************************************/
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	/************************************************************************************
+	 * getter for the number of cells in this table, including the ones without value
+	 * 
+	 * @return number of cells
+	 ************************************************************************************/
+	long getNumberCells() {
+		if (columns == null) {
+			return 0;
+		}
+		return (long) dataRows.size() * columns.size();
+	}
+
+	/************************************************************************************
+	 * getter for the statistics of all written values, minimum and maximum are
+	 * recombined from the rows here if they got invalid by overwriting values
+	 * 
+	 * @return {@link RunningStatistics}
+	 ************************************************************************************/
+	RunningStatistics getStatistics() {
+		if (!statistics.isExtremesValid()) {
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (DataRow row : getDataRows()) {
+				RunningStatistics rowStatistics = row.getStatistics();
+				if (rowStatistics.getCount() > 0) {
+					min = Math.min(min, rowStatistics.getMin());
+					max = Math.max(max, rowStatistics.getMax());
+				}
+			}
+			statistics.setExtremes(min, max);
+		}
+		return statistics;
 	}
 
 	/************************************************************************************
 	 * get global maximum value (for y-axis)
 	 * 
-	 * @return maxValue
+	 * @return maxValue, at least 0
 	 ************************************************************************************/
 	public Double getMaxValue() {
-		double max = 0;
-		for (DataRow row : dataRows) {
-			double temp = row.getMaxValue();
-			if (temp > max) {
-				max = temp;
-			}
+		RunningStatistics stats = getStatistics();
+		if (stats.getCount() > 0 && stats.getMax() > 0) {
+			return stats.getMax();
+		}
+		return 0.0;
+	}
+
+	/************************************************************************************
+	 * get global minimum value
+	 * 
+	 * @return minValue, 0 for an empty table
+	 ************************************************************************************/
+	public Double getMinValue() {
+		RunningStatistics stats = getStatistics();
+		if (stats.getCount() == 0) {
+			return 0.0;
+		}
+		if (stats.getCount() < getNumberCells() && stats.getMin() > 0) {
+			/* cells without value */
+			return 0.0;
 		}
-		return max;
+		return stats.getMin();
 	}
 
 	/************************************************************************************
@@ -126,11 +221,16 @@ public class DataTable implements Serializable {
 	 * @return mean value as Double
 	 ************************************************************************************/
 	public Double getMeanValue() {
-		double sum = 0;
-		for (DataRow dr : dataRows) {
-			sum += dr.getMeanValue();
-		}
-		return sum / dataRows.size();
+		return getStatistics().getSum() / getNumberCells();
+	}
+
+	/************************************************************************************
+	 * calculate standard deviation of all values of all DataRows
+	 * 
+	 * @return standard deviation as Double
+	 ************************************************************************************/
+	public Double getStandardDeviation() {
+		return getStatistics().getStandardDeviation(getNumberCells());
 	}
 
 	/************************************************************************************
@@ -150,6 +250,7 @@ public class DataTable implements Serializable {
 	 ************************************************************************************/
 	public void setName(String name) {
 		this.name = name;
+		modified();
 	}
 
 	/************************************************************************************
@@ -169,6 +270,7 @@ public class DataTable implements Serializable {
 	 ************************************************************************************/
 	public void setSubname(String subname) {
 		this.subname = subname;
+		modified();
 	}
 
 	/************************************************************************************
@@ -196,24 +298,16 @@ public class DataTable implements Serializable {
 	/************************************************************************************
 	 * getter current data table as inverted table for different renderings
 	 * 
+	 * the inverted table is a read-only view on the values of this table, rows and 
+	 * columns are swapped without copying any value, so later changes of this table 
+	 * are visible in the inverted table as well
+	 * 
 	 * @return {@link DataTable} as inverted table
 	 ************************************************************************************/
 	public DataTable getDataTableInverted() {
 		if (getDataRowsSize() == 0)
 			return this;
-		DataTable dt = new DataTable(this.getName());
-
-		for (int i = 0; i < this.getDataRows().get(0).getNumberValues(); i++) {
-			String label = this.getDataRows().get(0).getLabel(i);
-			DataRow dr = new DataRow(label);
-
-			for (int j = 0; j < getDataRowsSize(); j++) {
-				DataRow row = this.getDataRows().get(j);
-				dr.addValue(row.getName(), row.getValue(i));
-			}
-			dt.addDataRow(dr);
-		}
-
+		DataTable dt = new InvertedDataTable(this);
 		dt.setShowableInChart(this.isShowableInChart());
 		dt.setShowableInTable(this.isShowableInTable());
 		dt.setSubname(this.getSubname());
@@ -291,6 +385,7 @@ public class DataTable implements Serializable {
 	 ************************************************************************************/
 	public void setUnitLabel(String unitLabel) {
 		this.unitLabel = unitLabel;
+		modified();
 	}
 	
 }
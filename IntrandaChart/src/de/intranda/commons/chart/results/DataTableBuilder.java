@@ -0,0 +1,258 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*************************************************************************************
+ * A DataTableBuilder creates a {@link DataTable} with a fixed set of columns from
+ * primitive arrays. The labels are indexed only once when the builder is created, 
+ * rows are taken as whole <code>double[]</code> and columns can be set for all rows 
+ * at once, so no value gets boxed and no label gets looked up again while loading.
+ * 
+ * <pre>
+ * DataTableBuilder builder = new DataTableBuilder("title", "Januar", "Februar");
+ * builder.addRow("2009", new double[] { 5.0, 10.0 });
+ * DataTable table = builder.build();
+ * </pre>
+ * 
+ * A builder can only build one table, it must not be used any more after calling 
+ * {@link #build()}
+ * 
+ * @version 18.10.2026
+ * 
+ * @see DataTable
+ *************************************************************************************/
+public class DataTableBuilder {
+	private String title;
+	private LabelIndex columns;
+	private List<String> rowNames;
+	private List<double[]> rowValues;
+
+	/************************************************************************************
+	 * public constructor, the title and the columns of the table are set here
+	 * 
+	 * @param title the title of the table to build
+	 * @param columnLabels the labels of all columns in the order to show them
+	 * @throws IllegalArgumentException if a label is given twice
+	 ************************************************************************************/
+	public DataTableBuilder(String title, String... columnLabels) {
+		this.title = title;
+		this.columns = new LabelIndex();
+		for (String label : columnLabels) {
+			if (label == null) {
+				label = "-";
+			}
+			if (columns.indexOf(label) >= 0) {
+				throw new IllegalArgumentException("Column label '" + label + "' is given more than once.");
+			}
+			columns.add(label);
+		}
+		this.rowNames = new ArrayList<String>();
+		this.rowValues = new ArrayList<double[]>();
+	}
+
+	/************************************************************************************
+	 * add a row with one value for each column
+	 * 
+	 * @param rowName the name of the row
+	 * @param values the values in column order, the array is copied
+	 * @return this builder
+	 ************************************************************************************/
+	public DataTableBuilder addRow(String rowName, double[] values) {
+		checkRowLength(values.length);
+		double[] copy = new double[values.length];
+		System.arraycopy(values, 0, copy, 0, values.length);
+		return addRowValues(rowName, copy);
+	}
+
+	/************************************************************************************
+	 * add a row of integer counts with one value for each column
+	 * 
+	 * @param rowName the name of the row
+	 * @param values the values in column order
+	 * @return this builder
+	 ************************************************************************************/
+	public DataTableBuilder addRow(String rowName, int[] values) {
+		checkRowLength(values.length);
+		double[] copy = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			copy[i] = values[i];
+		}
+		return addRowValues(rowName, copy);
+	}
+
+	/************************************************************************************
+	 * add a row of long counts with one value for each column
+	 * 
+	 * @param rowName the name of the row
+	 * @param values the values in column order
+	 * @return this builder
+	 ************************************************************************************/
+	public DataTableBuilder addRow(String rowName, long[] values) {
+		checkRowLength(values.length);
+		double[] copy = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			copy[i] = values[i];
+		}
+		return addRowValues(rowName, copy);
+	}
+
+	/************************************************************************************
+	 * add rows where all values are 0, use this to fill the table column by column
+	 * with {@link #setColumn(int, double[])}
+	 * 
+	 * @param names the names of the rows
+	 * @return this builder
+	 ************************************************************************************/
+	public DataTableBuilder addRows(String... names) {
+		for (String name : names) {
+			addRowValues(name, new double[columns.size()]);
+		}
+		return this;
+	}
+
+	/************************************************************************************
+	 * set the values of one column for all rows added so far
+	 * 
+	 * @param column index of the column
+	 * @param values the values in row order
+	 * @return this builder
+	 ************************************************************************************/
+	public DataTableBuilder setColumn(int column, double[] values) {
+		checkColumn(column, values.length);
+		for (int r = 0; r < values.length; r++) {
+			rowValues.get(r)[column] = values[r];
+		}
+		return this;
+	}
+
+	/************************************************************************************
+	 * set the integer counts of one column for all rows added so far
+	 * 
+	 * @param column index of the column
+	 * @param values the values in row order
+	 * @return this builder
+	 ************************************************************************************/
+	public DataTableBuilder setColumn(int column, int[] values) {
+		checkColumn(column, values.length);
+		for (int r = 0; r < values.length; r++) {
+			rowValues.get(r)[column] = values[r];
+		}
+		return this;
+	}
+
+	/************************************************************************************
+	 * set the long counts of one column for all rows added so far
+	 * 
+	 * @param column index of the column
+	 * @param values the values in row order
+	 * @return this builder
+	 ************************************************************************************/
+	public DataTableBuilder setColumn(int column, long[] values) {
+		checkColumn(column, values.length);
+		for (int r = 0; r < values.length; r++) {
+			rowValues.get(r)[column] = values[r];
+		}
+		return this;
+	}
+
+	/************************************************************************************
+	 * set the values of one column for all rows added so far
+	 * 
+	 * @param columnLabel label of the column
+	 * @param values the values in row order
+	 * @return this builder
+	 ************************************************************************************/
+	public DataTableBuilder setColumn(String columnLabel, double[] values) {
+		int column = getColumns().indexOf(columnLabel);
+		if (column < 0) {
+			throw new IllegalArgumentException("Unknown column label '" + columnLabel + "'.");
+		}
+		return setColumn(column, values);
+	}
+
+	/************************************************************************************
+	 * create the {@link DataTable} with all rows added to this builder
+	 * 
+	 * @return the new {@link DataTable}
+	 ************************************************************************************/
+	public DataTable build() {
+		DataTable table = new DataTable(title);
+		LabelIndex labels = getColumns();
+		for (int r = 0; r < rowValues.size(); r++) {
+			table.addDataRow(new DataRow(rowNames.get(r), labels, rowValues.get(r)));
+		}
+		columns = null;
+		rowNames = null;
+		rowValues = null;
+		return table;
+	}
+
+	/************************************************************************************
+	 * getter for number of columns
+	 * 
+	 * @return number of columns
+	 ************************************************************************************/
+	public int getNumberColumns() {
+		return getColumns().size();
+	}
+
+	/************************************************************************************
+	 * getter for number of rows added so far
+	 * 
+	 * @return number of rows
+	 ************************************************************************************/
+	public int getNumberRows() {
+		getColumns();
+		return rowValues.size();
+	}
+
+	private DataTableBuilder addRowValues(String rowName, double[] values) {
+		getColumns();
+		rowNames.add(rowName);
+		rowValues.add(values);
+		return this;
+	}
+
+	private void checkRowLength(int length) {
+		if (length != getColumns().size()) {
+			throw new IllegalArgumentException("Row has " + length + " values, but the table has " + columns.size() + " columns.");
+		}
+	}
+
+	private void checkColumn(int column, int length) {
+		if (column < 0 || column >= getColumns().size()) {
+			throw new IndexOutOfBoundsException("Column: " + column + ", Size: " + columns.size());
+		}
+		if (length != rowValues.size()) {
+			throw new IllegalArgumentException("Column has " + length + " values, but the table has " + rowValues.size() + " rows.");
+		}
+	}
+
+	private LabelIndex getColumns() {
+		if (columns == null) {
+			throw new IllegalStateException("DataTable is built already.");
+		}
+		return columns;
+	}
+}
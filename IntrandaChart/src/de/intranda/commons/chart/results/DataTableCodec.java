@@ -0,0 +1,503 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/*************************************************************************************
+ * A DataTableCodec writes a {@link DataTable} in a compact binary format and reads it 
+ * back, as a smaller and faster replacement for Java serialization when tables are 
+ * transferred between applications.
+ * 
+ * The format is versioned and consists of 
+ * - a header with magic number and version 
+ * - the body in chunks of at most 64 KB, each with its length in front of it and 
+ *   ended by a chunk of length 0, with 
+ * - the table properties 
+ * - the label dictionary (written once for all rows, labels may occur more than once) 
+ * - each row with name, flags and one value for each label
+ * 
+ * Row values are written as raw 8-byte doubles. If all values of a row are integers 
+ * (like the usual counts) and compact integers are enabled, they are written as 
+ * zigzag varints of the differences between neighbouring values instead.
+ * 
+ * Encoding and decoding is streamed through a small buffer, so tables of any size 
+ * can be written to an {@link OutputStream} or read from an {@link InputStream} 
+ * without holding the encoded form in memory. The caller's streams are not closed.
+ * Because of the chunk lengths the decoder never reads beyond the end of the table, 
+ * so an {@link InputStream} or {@link ByteBuffer} is positioned directly after it 
+ * and several tables can be read one after the other.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see DataTable
+ *************************************************************************************/
+public class DataTableCodec {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final int MAGIC = 0x49445442; // "IDTB"
+	private static final int VERSION = 2;
+	private static final int BUFFER_SIZE = 65536;
+
+	private static final int ROW_RAW = 0;
+	private static final int ROW_DELTA_VARINT = 1;
+	private static final double MAX_EXACT_INTEGER = 9007199254740992.0; // 2^53
+
+	private boolean compactIntegers = true;
+
+	/************************************************************************************
+	 * write the table to a stream
+	 * 
+	 * @param table the {@link DataTable} to write
+	 * @param out the stream to write to, it is flushed but not closed
+	 * @throws IOException
+	 ************************************************************************************/
+	public void encode(DataTable table, OutputStream out) throws IOException {
+		Output output = new Output(out, null);
+		write(table, output);
+		out.flush();
+	}
+
+	/************************************************************************************
+	 * write the table to a buffer
+	 * 
+	 * @param table the {@link DataTable} to write
+	 * @param buffer the buffer to write to, starting at its current position
+	 * @throws BufferOverflowException if the buffer is too small
+	 ************************************************************************************/
+	public void encode(DataTable table, ByteBuffer buffer) {
+		try {
+			write(table, new Output(null, buffer));
+		} catch (IOException e) {
+			/* there is no stream behind the buffer */
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/************************************************************************************
+	 * read a table from a stream
+	 * 
+	 * @param in the stream to read from, it is not closed
+	 * @return the {@link DataTable}
+	 * @throws IOException if the stream cannot be read or holds no valid table
+	 ************************************************************************************/
+	public DataTable decode(InputStream in) throws IOException {
+		return read(new Input(in, null));
+	}
+
+	/************************************************************************************
+	 * read a table from a buffer
+	 * 
+	 * @param buffer the buffer to read from, starting at its current position
+	 * @return the {@link DataTable}
+	 * @throws IOException if the buffer holds no valid table
+	 ************************************************************************************/
+	public DataTable decode(ByteBuffer buffer) throws IOException {
+		return read(new Input(null, buffer));
+	}
+
+	/************************************************************************************
+	 * getter for compactIntegers
+	 * 
+	 * @return true if integer rows are written as delta varints
+	 ************************************************************************************/
+	public boolean isCompactIntegers() {
+		return compactIntegers;
+	}
+
+	/************************************************************************************
+	 * setter for compactIntegers
+	 * 
+	 * @param compactIntegers true to write rows with integer values as delta varints
+	 ************************************************************************************/
+	public void setCompactIntegers(boolean compactIntegers) {
+		this.compactIntegers = compactIntegers;
+	}
+
+	private void write(DataTable table, Output output) throws IOException {
+		output.writeInt(MAGIC);
+		output.writeByte(VERSION);
+		output.beginChunks();
+		output.writeString(table.getName());
+		output.writeString(table.getSubname());
+		output.writeString(table.getUnitLabel());
+		output.writeByte((table.isShowableInTable() ? 1 : 0) | (table.isShowableInChart() ? 2 : 0) | (table.isShowableInPieChart() ? 4 : 0));
+
+		List<DataRow> rows = table.getDataRows();
+		int columns = rows.size() == 0 ? 0 : rows.get(0).getNumberValues();
+		output.writeVarLong(columns);
+		for (int i = 0; i < columns; i++) {
+			output.writeString(rows.get(0).getLabel(i));
+		}
+
+		output.writeVarLong(rows.size());
+		double[] values = new double[columns];
+		for (DataRow row : rows) {
+			output.writeString(row.getName());
+			output.writeByte((row.isShowMeanValue() ? 1 : 0) | (row.isShowPoint() ? 2 : 0));
+			for (int i = 0; i < columns; i++) {
+				values[i] = row.getDouble(i);
+			}
+			if (compactIntegers && isIntegerRow(values)) {
+				output.writeByte(ROW_DELTA_VARINT);
+				long previous = 0;
+				for (int i = 0; i < columns; i++) {
+					long value = (long) values[i];
+					long delta = value - previous;
+					output.writeVarLong((delta << 1) ^ (delta >> 63));
+					previous = value;
+				}
+			} else {
+				output.writeByte(ROW_RAW);
+				for (int i = 0; i < columns; i++) {
+					output.writeDouble(values[i]);
+				}
+			}
+		}
+		output.endChunks();
+	}
+
+	private DataTable read(Input input) throws IOException {
+		if (input.readInt() != MAGIC) {
+			throw new IOException("Data is no encoded DataTable.");
+		}
+		int version = input.readByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported DataTable encoding version " + version + ".");
+		}
+		input.beginChunks();
+		DataTable table = new DataTable(input.readString());
+		table.setSubname(input.readString());
+		table.setUnitLabel(input.readString());
+		int tableFlags = input.readByte();
+		table.setShowableInTable((tableFlags & 1) != 0);
+		table.setShowableInChart((tableFlags & 2) != 0);
+		table.setShowableInPieChart((tableFlags & 4) != 0);
+
+		int columns = readCount(input);
+		LabelIndex labels = new LabelIndex();
+		for (int i = 0; i < columns; i++) {
+			/* columns of an inverted table can share a label if rows have the same name */
+			labels.append(input.readString());
+		}
+
+		int rowCount = readCount(input);
+		for (int r = 0; r < rowCount; r++) {
+			String name = input.readString();
+			int rowFlags = input.readByte();
+			int encoding = input.readByte();
+			double[] values = new double[columns];
+			if (encoding == ROW_DELTA_VARINT) {
+				long previous = 0;
+				for (int i = 0; i < columns; i++) {
+					long zigzag = input.readVarLong();
+					previous += (zigzag >>> 1) ^ -(zigzag & 1);
+					values[i] = previous;
+				}
+			} else if (encoding == ROW_RAW) {
+				for (int i = 0; i < columns; i++) {
+					values[i] = input.readDouble();
+				}
+			} else {
+				throw new IOException("Unknown row encoding " + encoding + ".");
+			}
+			DataRow row = new DataRow(name, labels, values);
+			row.setShowMeanValue((rowFlags & 1) != 0);
+			row.setShowPoint((rowFlags & 2) != 0);
+			table.addDataRow(row);
+		}
+		input.endChunks();
+		return table;
+	}
+
+	private static int readCount(Input input) throws IOException {
+		long count = input.readVarLong();
+		if (count < 0 || count > Integer.MAX_VALUE) {
+			throw new IOException("Invalid count " + count + " in encoded DataTable.");
+		}
+		return (int) count;
+	}
+
+	private static boolean isIntegerRow(double[] values) {
+		for (double value : values) {
+			if (value != Math.rint(value) || Math.abs(value) > MAX_EXACT_INTEGER || (value == 0 && 1 / value < 0)) {
+				/* fractions, huge values, -0.0, NaN and infinity keep their raw form */
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/*************************************************************************************
+	 * buffered output to a stream or a byte buffer, after the header each flush writes 
+	 * the buffered bytes as one chunk with its length in the first 4 bytes of the buffer
+	 *************************************************************************************/
+	private static class Output {
+		private byte[] bytes = new byte[4 + BUFFER_SIZE];
+		private int position;
+		// bytes reserved for the chunk length, 0 while the header is written
+		private int start;
+		private OutputStream out;
+		private ByteBuffer target;
+
+		Output(OutputStream out, ByteBuffer target) {
+			this.out = out;
+			this.target = target;
+		}
+
+		void writeByte(int value) throws IOException {
+			ensure(1);
+			bytes[position++] = (byte) value;
+		}
+
+		void writeInt(int value) throws IOException {
+			ensure(4);
+			bytes[position++] = (byte) (value >>> 24);
+			bytes[position++] = (byte) (value >>> 16);
+			bytes[position++] = (byte) (value >>> 8);
+			bytes[position++] = (byte) value;
+		}
+
+		void writeDouble(double value) throws IOException {
+			ensure(8);
+			long bits = Double.doubleToRawLongBits(value);
+			for (int shift = 56; shift >= 0; shift -= 8) {
+				bytes[position++] = (byte) (bits >>> shift);
+			}
+		}
+
+		void writeVarLong(long value) throws IOException {
+			ensure(10);
+			while ((value & ~0x7FL) != 0) {
+				bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			bytes[position++] = (byte) value;
+		}
+
+		/* null is written as length 0, all other strings with length + 1 */
+		void writeString(String value) throws IOException {
+			if (value == null) {
+				writeVarLong(0);
+				return;
+			}
+			byte[] stringBytes = value.getBytes(UTF8);
+			writeVarLong(stringBytes.length + 1L);
+			int offset = 0;
+			while (offset < stringBytes.length) {
+				ensure(1);
+				int length = Math.min(bytes.length - position, stringBytes.length - offset);
+				System.arraycopy(stringBytes, offset, bytes, position, length);
+				position += length;
+				offset += length;
+			}
+		}
+
+		/* write the header and put all following bytes into chunks */
+		void beginChunks() throws IOException {
+			flush();
+			start = 4;
+			position = start;
+		}
+
+		/* write the last chunk and the chunk of length 0 */
+		void endChunks() throws IOException {
+			flush();
+			writeChunk(0);
+		}
+
+		void flush() throws IOException {
+			if (position > start) {
+				writeChunk(position - start);
+				position = start;
+			}
+		}
+
+		private void writeChunk(int length) throws IOException {
+			if (start > 0) {
+				bytes[0] = (byte) (length >>> 24);
+				bytes[1] = (byte) (length >>> 16);
+				bytes[2] = (byte) (length >>> 8);
+				bytes[3] = (byte) length;
+			}
+			if (out != null) {
+				out.write(bytes, 0, start + length);
+			} else {
+				target.put(bytes, 0, start + length);
+			}
+		}
+
+		private void ensure(int length) throws IOException {
+			if (bytes.length - position < length) {
+				flush();
+			}
+		}
+	}
+
+	/*************************************************************************************
+	 * buffered input from a stream or a byte buffer, it reads the header exactly and 
+	 * the body chunk by chunk, so no byte after the table is read
+	 *************************************************************************************/
+	private static class Input {
+		private byte[] bytes = new byte[BUFFER_SIZE];
+		private int position;
+		private int limit;
+		// true after the header, the bytes of the current chunk not read into the buffer yet
+		private boolean chunked;
+		private int chunkRemaining;
+		private InputStream in;
+		private ByteBuffer source;
+
+		Input(InputStream in, ByteBuffer source) {
+			this.in = in;
+			this.source = source;
+		}
+
+		int readByte() throws IOException {
+			ensure(1);
+			return bytes[position++] & 0xFF;
+		}
+
+		int readInt() throws IOException {
+			ensure(4);
+			int value = 0;
+			for (int i = 0; i < 4; i++) {
+				value = (value << 8) | (bytes[position++] & 0xFF);
+			}
+			return value;
+		}
+
+		double readDouble() throws IOException {
+			ensure(8);
+			long bits = 0;
+			for (int i = 0; i < 8; i++) {
+				bits = (bits << 8) | (bytes[position++] & 0xFF);
+			}
+			return Double.longBitsToDouble(bits);
+		}
+
+		long readVarLong() throws IOException {
+			long value = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				int b = readByte();
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new IOException("Malformed varint in encoded DataTable.");
+		}
+
+		String readString() throws IOException {
+			long length = readVarLong() - 1;
+			if (length < 0) {
+				return null;
+			}
+			if (length > Integer.MAX_VALUE) {
+				throw new IOException("Invalid string length " + length + " in encoded DataTable.");
+			}
+			byte[] stringBytes = new byte[(int) length];
+			int offset = 0;
+			while (offset < stringBytes.length) {
+				ensure(1);
+				int part = Math.min(limit - position, stringBytes.length - offset);
+				System.arraycopy(bytes, position, stringBytes, offset, part);
+				position += part;
+				offset += part;
+			}
+			return new String(stringBytes, UTF8);
+		}
+
+		void beginChunks() {
+			chunked = true;
+		}
+
+		/* read the chunk of length 0 after the last value */
+		void endChunks() throws IOException {
+			if (limit > position || chunkRemaining > 0 || readChunkLength() != 0) {
+				throw new IOException("Encoded DataTable has more data than its rows.");
+			}
+		}
+
+		private void ensure(int length) throws IOException {
+			if (limit - position >= length) {
+				return;
+			}
+			System.arraycopy(bytes, position, bytes, 0, limit - position);
+			limit -= position;
+			position = 0;
+			while (limit < length) {
+				int wanted = length - limit;
+				if (chunked) {
+					if (chunkRemaining == 0) {
+						chunkRemaining = readChunkLength();
+						if (chunkRemaining == 0) {
+							throw new EOFException("Encoded DataTable is truncated.");
+						}
+					}
+					/* fill the buffer, but not beyond the current chunk */
+					wanted = Math.min(chunkRemaining, bytes.length - limit);
+				}
+				int read = read(bytes, limit, wanted);
+				limit += read;
+				if (chunked) {
+					chunkRemaining -= read;
+				}
+			}
+		}
+
+		private int readChunkLength() throws IOException {
+			byte[] length = new byte[4];
+			for (int offset = 0; offset < length.length;) {
+				offset += read(length, offset, length.length - offset);
+			}
+			int chunkLength = ((length[0] & 0xFF) << 24) | ((length[1] & 0xFF) << 16) | ((length[2] & 0xFF) << 8) | (length[3] & 0xFF);
+			if (chunkLength < 0 || chunkLength > BUFFER_SIZE) {
+				throw new IOException("Invalid chunk length " + chunkLength + " in encoded DataTable.");
+			}
+			return chunkLength;
+		}
+
+		/* read at least one and at most the given number of bytes */
+		private int read(byte[] target, int offset, int length) throws IOException {
+			int read;
+			if (in != null) {
+				read = in.read(target, offset, length);
+			} else {
+				read = Math.min(source.remaining(), length);
+				source.get(target, offset, read);
+				if (read == 0) {
+					read = -1;
+				}
+			}
+			if (read < 0) {
+				throw new EOFException("Encoded DataTable is truncated.");
+			}
+			return read;
+		}
+	}
+}
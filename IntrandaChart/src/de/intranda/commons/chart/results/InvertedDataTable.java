@@ -0,0 +1,240 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/*************************************************************************************
+ * An InvertedDataTable is a read-only view on another {@link DataTable} with rows
+ * and columns swapped. Each row of the view reads one column of the source table, 
+ * no values are copied. Creating the view costs constant time and the view always 
+ * shows the current values of the source table.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see DataTable#getDataTableInverted()
+ *************************************************************************************/
+class InvertedDataTable extends DataTable {
+	private static final long serialVersionUID = 3015424871394006318L;
+	private DataTable source;
+	private transient List<DataRow> invertedRows;
+
+	/************************************************************************************
+	 * constructor for a view on the given table
+	 * 
+	 * @param source the {@link DataTable} to invert
+	 ************************************************************************************/
+	InvertedDataTable(DataTable source) {
+		super(source.getName());
+		this.source = source;
+	}
+
+	/************************************************************************************
+	 * getter for all DataRows, each one is a view on a column of the source table
+	 * 
+	 * @return list of {@link DataRow}
+	 ************************************************************************************/
+	public List<DataRow> getDataRows() {
+		if (invertedRows == null) {
+			invertedRows = new InvertedRowList();
+		}
+		return invertedRows;
+	}
+
+	public int getDataRowsSize() {
+		if (source.getDataRowsSize() == 0) {
+			return 0;
+		}
+		return source.getDataRows().get(0).getNumberValues();
+	}
+
+	public void addDataRow(DataRow newRow) {
+		throw new UnsupportedOperationException("An inverted DataTable is read-only.");
+	}
+
+	public void removeDataRow(DataRow deleteRow) {
+		throw new UnsupportedOperationException("An inverted DataTable is read-only.");
+	}
+
+	/* all statistics are the same as the ones of the source, only rows and columns are swapped */
+
+	public Double getMaxValue() {
+		return source.getMaxValue();
+	}
+
+	public Double getMinValue() {
+		return source.getMinValue();
+	}
+
+	public Double getMeanValue() {
+		return source.getMeanValue();
+	}
+
+	public Double getStandardDeviation() {
+		return source.getStandardDeviation();
+	}
+
+	public long getModificationCount() {
+		return source.getModificationCount() + super.getModificationCount();
+	}
+
+	/************************************************************************************
+	 * getter for the inverted table, which is the source table of this view
+	 * 
+	 * @return the source {@link DataTable}
+	 ************************************************************************************/
+	public DataTable getDataTableInverted() {
+		return source;
+	}
+
+	/*************************************************************************************
+	 * list of the column views, the views are created when first needed
+	 *************************************************************************************/
+	private class InvertedRowList extends AbstractList<DataRow> {
+		private List<DataRow> columnRows = new ArrayList<DataRow>();
+
+		public DataRow get(int index) {
+			if (index < 0 || index >= size()) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+			}
+			while (columnRows.size() <= index) {
+				columnRows.add(new InvertedDataRow(InvertedDataTable.this, source, columnRows.size()));
+			}
+			return columnRows.get(index);
+		}
+
+		public int size() {
+			return getDataRowsSize();
+		}
+	}
+
+	/*************************************************************************************
+	 * A read-only {@link DataRow} showing one column of a {@link DataTable}, its labels
+	 * are the names of the rows of the table; the row belongs to the inverted view, 
+	 * so other tables copy it when it is added to them
+	 *************************************************************************************/
+	private static class InvertedDataRow extends DataRow {
+		private static final long serialVersionUID = -7190946307154151683L;
+		private DataTable view;
+		private DataTable source;
+		private int column;
+
+		InvertedDataRow(DataTable view, DataTable source, int column) {
+			super(null, new LabelIndex(), new double[0]);
+			this.view = view;
+			this.source = source;
+			this.column = column;
+		}
+
+		DataTable getTable() {
+			return view;
+		}
+
+		public String getName() {
+			return source.getDataRows().get(0).getLabel(column);
+		}
+
+		public void setName(String name) {
+			throw new UnsupportedOperationException("The name of an inverted DataRow is the label of the column.");
+		}
+
+		public void addValue(String inLabel, double inValue) {
+			throw new UnsupportedOperationException("An inverted DataRow is read-only.");
+		}
+
+		void setDouble(int index, double inValue) {
+			throw new UnsupportedOperationException("An inverted DataRow is read-only.");
+		}
+
+		public String getLabel(int index) {
+			return source.getDataRows().get(index).getName();
+		}
+
+		/* the labels are the names of the source rows, which can change */
+		public String getShortLabel(int index) {
+			return shortenLabel(getLabel(index));
+		}
+
+		int getMaxShortLabelWidth(StringWidthCache widths) {
+			int maxWidth = 0;
+			for (int i = 0; i < getNumberValues(); i++) {
+				maxWidth = Math.max(maxWidth, widths.stringWidth(getShortLabel(i)));
+			}
+			return maxWidth;
+		}
+
+		public double getDouble(int index) {
+			return source.getDataRows().get(index).getDouble(column);
+		}
+
+		public double getDouble(String inLabel) {
+			int index = indexOf(inLabel);
+			if (index < 0) {
+				return 0;
+			}
+			return getDouble(index);
+		}
+
+		public Integer getNumberValues() {
+			return source.getDataRowsSize();
+		}
+
+		public Boolean isContainsLabel(String inLabel) {
+			return indexOf(inLabel) >= 0;
+		}
+
+		public List<String> getLabels() {
+			return new AbstractList<String>() {
+				public String get(int index) {
+					return getLabel(index);
+				}
+
+				public int size() {
+					return getNumberValues();
+				}
+			};
+		}
+
+		/* statistics of a column are not maintained while writing, so they are calculated here */
+		RunningStatistics getStatistics() {
+			int size = getNumberValues();
+			double[] values = new double[size];
+			for (int i = 0; i < size; i++) {
+				values[i] = getDouble(i);
+			}
+			RunningStatistics statistics = new RunningStatistics();
+			statistics.add(values, size);
+			return statistics;
+		}
+
+		private int indexOf(String inLabel) {
+			List<DataRow> rows = source.getDataRows();
+			for (int i = 0; i < rows.size(); i++) {
+				if (rows.get(i).getName().equals(inLabel)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,193 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*************************************************************************************
+ * A LabelIndex is the dictionary of labels (columns) of one or more {@link DataRow}s.
+ * It keeps the labels in insertion order and maps each label to its column index.
+ * 
+ * A {@link DataTable} shares one LabelIndex between all its rows, so a new label
+ * extends the schema of all rows at once and each label is shortened only once for
+ * the whole table.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see DataRow
+ * @see DataTable
+ *************************************************************************************/
+class LabelIndex implements Serializable {
+	private static final long serialVersionUID = 6212877163384151322L;
+
+	private List<String> labels;
+	private Map<String, Integer> columns;
+	// shortened labels, computed once for each column when first needed
+	private transient String[] shortLabels;
+	// widest shortened label of the first measuredColumns columns in the font of measuredWith
+	private transient StringWidthCache measuredWith;
+	private transient int measuredColumns;
+	private transient int maxShortLabelWidth;
+
+	/************************************************************************************
+	 * constructor for an empty label index
+	 ************************************************************************************/
+	LabelIndex() {
+		labels = new ArrayList<String>();
+		columns = new HashMap<String, Integer>();
+	}
+
+	/************************************************************************************
+	 * get the column of a label, the label is added as new column if it is unknown
+	 * 
+	 * @param inLabel the label to look up
+	 * @return the column index of the label
+	 ************************************************************************************/
+	int add(String inLabel) {
+		Integer column = columns.get(inLabel);
+		if (column == null) {
+			column = labels.size();
+			columns.put(inLabel, column);
+			labels.add(inLabel);
+		}
+		return column;
+	}
+
+	/************************************************************************************
+	 * add a label as new column, even if it is known already; looking up the label 
+	 * still gives its first column
+	 * 
+	 * @param inLabel the label to add
+	 * @return the column index of the new column
+	 ************************************************************************************/
+	int append(String inLabel) {
+		int column = labels.size();
+		if (!columns.containsKey(inLabel)) {
+			columns.put(inLabel, column);
+		}
+		labels.add(inLabel);
+		return column;
+	}
+
+	/************************************************************************************
+	 * get the column of a label
+	 * 
+	 * @param inLabel the label to look up
+	 * @return the column index of the label or -1 if the label is unknown
+	 ************************************************************************************/
+	int indexOf(String inLabel) {
+		Integer column = columns.get(inLabel);
+		if (column == null) {
+			return -1;
+		}
+		return column;
+	}
+
+	/************************************************************************************
+	 * get the label of a column
+	 * 
+	 * @param index the column index
+	 * @return the label
+	 ************************************************************************************/
+	String get(int index) {
+		return labels.get(index);
+	}
+
+	/************************************************************************************
+	 * get the shortened label of a column, see {@link DataRow#getShortLabel(int)}
+	 * 
+	 * @param index the column index
+	 * @return the shortened label
+	 ************************************************************************************/
+	String getShortLabel(int index) {
+		/* labels of a column never change, threads racing here only shorten a label twice */
+		String[] cache = shortLabels;
+		if (cache == null || index >= cache.length) {
+			String[] grown = new String[Math.max(index + 1, size())];
+			if (cache != null) {
+				System.arraycopy(cache, 0, grown, 0, cache.length);
+			}
+			cache = grown;
+			shortLabels = cache;
+		}
+		String shortLabel = cache[index];
+		if (shortLabel == null) {
+			String label = get(index);
+			shortLabel = DataRow.shortenLabel(label == null ? "" : label);
+			cache[index] = shortLabel;
+		}
+		return shortLabel;
+	}
+
+	/************************************************************************************
+	 * get the width of the widest shortened label, only columns added since the last 
+	 * call with the same font are measured
+	 * 
+	 * @param widths the {@link StringWidthCache} of the font
+	 * @return the width in pixels
+	 ************************************************************************************/
+	synchronized int getMaxShortLabelWidth(StringWidthCache widths) {
+		if (widths != measuredWith) {
+			measuredWith = widths;
+			measuredColumns = 0;
+			maxShortLabelWidth = 0;
+		}
+		int size = size();
+		for (int i = measuredColumns; i < size; i++) {
+			maxShortLabelWidth = Math.max(maxShortLabelWidth, widths.stringWidth(getShortLabel(i)));
+		}
+		measuredColumns = size;
+		return maxShortLabelWidth;
+	}
+
+	/************************************************************************************
+	 * get number of labels
+	 * 
+	 * @return number of labels
+	 ************************************************************************************/
+	int size() {
+		return labels.size();
+	}
+
+	/************************************************************************************
+	 * getter for all labels in column order
+	 * 
+	 * @return unmodifiable list of labels
+	 ************************************************************************************/
+	List<String> asList() {
+		return Collections.unmodifiableList(labels);
+	}
+
+	/************************************************************************************
+	 * create an empty row storing its values by the columns of this index
+	 * 
+	 * @param name the name of the row
+	 * @return the new {@link DataRow}
+	 ************************************************************************************/
+	DataRow createRow(String name) {
+		return new DataRow(name, this);
+	}
+}
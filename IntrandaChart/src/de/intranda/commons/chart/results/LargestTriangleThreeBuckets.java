@@ -0,0 +1,93 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+/*************************************************************************************
+ * Largest-Triangle-Three-Buckets downsampling of a {@link DataRow} for line charts
+ * 
+ * The values are cut into buckets of equal width, from each bucket the value is 
+ * kept that forms the largest triangle with the value kept before and the average 
+ * of the next bucket. First and last value are always kept. The result keeps peaks 
+ * and the visual shape of the line with a fraction of the points.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see ChartDraw
+ *************************************************************************************/
+final class LargestTriangleThreeBuckets {
+
+	private LargestTriangleThreeBuckets() {
+	}
+
+	/************************************************************************************
+	 * select the values to draw
+	 * 
+	 * @param row the {@link DataRow} with the values
+	 * @param size the number of values to look at
+	 * @param threshold the number of values to keep, at least 3
+	 * @return the indices of the kept values in ascending order, null if all values 
+	 *         should be kept
+	 ************************************************************************************/
+	static int[] select(DataRow row, int size, int threshold) {
+		if (threshold < 3 || threshold >= size) {
+			return null;
+		}
+		int[] selected = new int[threshold];
+		double bucketSize = (double) (size - 2) / (threshold - 2);
+
+		int a = 0;
+		double aValue = row.getDouble(0);
+		for (int bucket = 0; bucket < threshold - 2; bucket++) {
+			/* average of the next bucket, the last bucket is the last value */
+			int averageStart = (int) ((bucket + 1) * bucketSize) + 1;
+			int averageEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, size);
+			double averageX = 0;
+			double averageValue = 0;
+			for (int j = averageStart; j < averageEnd; j++) {
+				averageX += j;
+				averageValue += row.getDouble(j);
+			}
+			averageX /= averageEnd - averageStart;
+			averageValue /= averageEnd - averageStart;
+
+			/* the value of this bucket with the largest triangle */
+			int start = (int) (bucket * bucketSize) + 1;
+			int end = (int) ((bucket + 1) * bucketSize) + 1;
+			double maxArea = -1;
+			int next = start;
+			double nextValue = 0;
+			for (int j = start; j < end; j++) {
+				double value = row.getDouble(j);
+				double area = Math.abs((a - averageX) * (value - aValue) - (a - j) * (averageValue - aValue));
+				if (area > maxArea) {
+					maxArea = area;
+					next = j;
+					nextValue = value;
+				}
+			}
+			selected[bucket + 1] = next;
+			a = next;
+			aValue = nextValue;
+		}
+		selected[threshold - 1] = size - 1;
+		return selected;
+	}
+}
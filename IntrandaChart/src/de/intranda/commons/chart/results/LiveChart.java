@@ -0,0 +1,355 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import java.awt.Color;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.intranda.commons.chart.results.ChartDraw.Aggregation;
+import de.intranda.commons.chart.results.ChartDraw.ChartType;
+import de.intranda.commons.chart.results.ChartDraw.PointStyle;
+
+/*************************************************************************************
+ * A chart that is painted again and again while its {@link DataTable} changes, for
+ * example on a monitoring page
+ * 
+ * The chart keeps its image, its {@link ChartLayout} and a copy of the painted
+ * values. On each {@link #update()} the layout is computed again; if the grid stays
+ * the same, that is the y-scale, the tick marks on both axes, the borders and the
+ * legend, only the columns with changed values are painted again. This is the case
+ * when values of existing columns change or values are added to any row but the
+ * first one, which defines the columns. Of line charts downsampled by the layout 
+ * only the region where other values are drawn is painted again. Everything else, 
+ * like a new column, a new maximum of the y-axis or changed names, repaints the 
+ * whole chart. Mean lines span the whole chart, so with mean values shown each 
+ * changed value repaints all.
+ * 
+ * A repainted region gets exactly the pixels a complete painting would give. The
+ * chart is not thread-safe, it is meant to be updated by one thread at a time.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see ChartDraw
+ *************************************************************************************/
+public class LiveChart {
+	private final DataTable dataTable;
+	private final int width;
+	private final int height;
+	private final ChartType chartType;
+	private final PointStyle pointStyle;
+	private final ChartTheme theme;
+	private Aggregation barAggregation = Aggregation.MAX;
+
+	private BufferedImage image = null;
+	private ChartLayout layout = null;
+	private long modificationCount = -1;
+	// copy of the painted values of each row of the layout table
+	private double[][] paintedValues = null;
+	// names, flags and mean values that were painted, a change repaints all
+	private List<Object> paintedLabels = null;
+	private Rectangle repainted = new Rectangle();
+	private long fullRepaints = 0;
+	private long partialRepaints = 0;
+
+	/************************************************************************************
+	 * create a live chart, it is painted on the first {@link #update()}
+	 * 
+	 * @param inDataTable the {@link DataTable} to show
+	 * @param width the width of the image
+	 * @param height the height of the image
+	 * @param chartType the type of the chart (bar or line), null for bar
+	 * @param pointStyle the style of points in the legend and line charts, null for
+	 *        squares
+	 * @param theme the {@link ChartTheme}, null for {@link ChartTheme#DEFAULT}
+	 ************************************************************************************/
+	public LiveChart(DataTable inDataTable, int width, int height, ChartType chartType, PointStyle pointStyle, ChartTheme theme) {
+		if (inDataTable == null) {
+			throw new IllegalArgumentException("No DataTable set. No rendering possible.");
+		}
+		this.dataTable = inDataTable;
+		this.width = width;
+		this.height = height;
+		this.chartType = chartType == null ? ChartType.BAR : chartType;
+		this.pointStyle = pointStyle == null ? PointStyle.SQUARE : pointStyle;
+		this.theme = theme == null ? ChartTheme.DEFAULT : theme;
+	}
+
+	/************************************************************************************
+	 * paint what changed since the last update
+	 * 
+	 * @return the repainted region of the image, empty if nothing changed
+	 ************************************************************************************/
+	public Rectangle update() {
+		if (layout != null && dataTable.getModificationCount() == modificationCount && labels().equals(paintedLabels)) {
+			repainted = new Rectangle();
+			return repainted;
+		}
+		boolean newImage = image == null;
+		if (newImage) {
+			image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		}
+		Graphics2D g2d = createGraphics();
+		try {
+			if (dataTable.getDataRows().isEmpty()) {
+				// nothing to lay out, the chart is only the white background
+				Rectangle region = newImage || layout != null ? new Rectangle(0, 0, width, height) : new Rectangle();
+				if (!region.isEmpty()) {
+					g2d.setColor(Color.white);
+					g2d.fillRect(0, 0, width, height);
+					fullRepaints++;
+				}
+				layout = null;
+				paintedValues = null;
+				paintedLabels = null;
+				repainted = region;
+				return region;
+			}
+
+			FontMetrics fm = g2d.getFontMetrics();
+			ChartLayout newLayout = new ChartLayout(dataTable, width, height, chartType, barAggregation, fm);
+			List<Object> newLabels = labels();
+			double[][] newValues = values(newLayout);
+
+			Rectangle region = null;
+			if (layout != null && isSameGrid(layout, newLayout) && newLabels.equals(paintedLabels)) {
+				region = getChangedRegion(newLayout, newValues, fm);
+			}
+			if (region == null) {
+				region = new Rectangle(0, 0, width, height);
+				fullRepaints++;
+			} else if (!region.isEmpty()) {
+				partialRepaints++;
+			}
+
+			if (!region.isEmpty()) {
+				g2d.clip(region);
+				new ChartPainter(newLayout, g2d, theme, pointStyle).paint();
+			}
+			layout = newLayout;
+			paintedValues = newValues;
+			paintedLabels = newLabels;
+			modificationCount = dataTable.getModificationCount();
+			repainted = region;
+			return region;
+		} finally {
+			g2d.dispose();
+		}
+	}
+
+	private Graphics2D createGraphics() {
+		Graphics2D g2d = image.createGraphics();
+		g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		if (theme.getFont() != null) {
+			g2d.setFont(theme.getFont());
+		}
+		return g2d;
+	}
+
+	/************************************************************************************
+	 * find the columns whose drawing changed: the columns with changed values and in 
+	 * line charts also their neighbours, as the lines to them change as well; of rows 
+	 * downsampled by the layout only the drawn values are compared
+	 * 
+	 * @return the region of these columns over the whole height of the image, null if
+	 *         the whole chart has to be painted
+	 ************************************************************************************/
+	private Rectangle getChangedRegion(ChartLayout newLayout, double[][] newValues, FontMetrics fm) {
+		boolean line = chartType == ChartType.LINE;
+		int first = Integer.MAX_VALUE;
+		int last = -1;
+		for (int d = 0; d < newValues.length; d++) {
+			double[] before = paintedValues[d];
+			double[] after = newValues[d];
+			int[] selectedBefore = layout.getSelectedValues(d);
+			int[] selectedAfter = newLayout.getSelectedValues(d);
+			if (selectedBefore == null && selectedAfter == null) {
+				int size = Math.max(before.length, after.length);
+				for (int i = 0; i < size; i++) {
+					if (i >= before.length || i >= after.length || Double.compare(before[i], after[i]) != 0) {
+						first = Math.min(first, line ? i - 1 : i);
+						last = Math.max(last, line ? i + 1 : i);
+					}
+				}
+			} else if (selectedBefore != null && selectedAfter != null && selectedBefore.length == selectedAfter.length) {
+				// the downsampling may choose other values, usually only close to the changed ones
+				int points = selectedAfter.length;
+				for (int p = 0; p < points; p++) {
+					if (selectedBefore[p] != selectedAfter[p] || Double.compare(before[selectedBefore[p]], after[selectedAfter[p]]) != 0) {
+						int previous = Math.max(p - 1, 0);
+						int next = Math.min(p + 1, points - 1);
+						first = Math.min(first, Math.min(selectedBefore[previous], selectedAfter[previous]));
+						last = Math.max(last, Math.max(selectedBefore[next], selectedAfter[next]));
+					}
+				}
+			} else {
+				return null;
+			}
+		}
+		if (first == Integer.MAX_VALUE) {
+			return new Rectangle();
+		}
+
+		int columns = newLayout.getXTickMarks().size();
+		int left;
+		int right;
+		if (line) {
+			// the points and the width of the lines
+			int margin = 2 + Math.max((int) Math.ceil(theme.getLineStroke().getLineWidth()), fm.getHeight() / 4);
+			left = (int) Math.floor(newLayout.getXPosition(Math.max(first, 0))) - margin;
+			right = (int) Math.ceil(newLayout.getXPosition(last)) + margin;
+		} else {
+			// the whole columns of the changed bars
+			left = newLayout.getBorderLeft() + first * newLayout.getChartWidth() / columns - 1;
+			right = newLayout.getBorderLeft() + (last + 1) * newLayout.getChartWidth() / columns + 1;
+		}
+		left = Math.max(left, 0);
+		right = Math.min(right, width);
+		return new Rectangle(left, 0, Math.max(right - left, 0), height);
+	}
+
+	/************************************************************************************
+	 * check if two layouts put all axes, ticks, texts and the legend at the same place
+	 ************************************************************************************/
+	private static boolean isSameGrid(ChartLayout a, ChartLayout b) {
+		return a.getChartType() == b.getChartType() && a.getWidth() == b.getWidth() && a.getHeight() == b.getHeight()
+				&& a.getYMaxValue() == b.getYMaxValue() && a.getBorderLeft() == b.getBorderLeft() && a.getBorderTop() == b.getBorderTop()
+				&& a.getBorderBottom() == b.getBorderBottom() && a.getChartWidth() == b.getChartWidth()
+				&& a.getChartHeight() == b.getChartHeight() && a.getXGridWidth() == b.getXGridWidth()
+				&& a.getXMarkerTextDistance() == b.getXMarkerTextDistance() && a.getLegendWidth() == b.getLegendWidth()
+				&& a.getLegendHeight() == b.getLegendHeight() && a.getXTickMarks().equals(b.getXTickMarks())
+				&& a.getYTickMarks().equals(b.getYTickMarks());
+	}
+
+	/************************************************************************************
+	 * copy the values of all rows of the table of a layout
+	 ************************************************************************************/
+	private static double[][] values(ChartLayout layout) {
+		List<DataRow> rows = layout.getDataTable().getDataRows();
+		double[][] values = new double[rows.size()][];
+		for (int d = 0; d < values.length; d++) {
+			DataRow row = rows.get(d);
+			values[d] = new double[row.getNumberValues()];
+			for (int i = 0; i < values[d].length; i++) {
+				values[d][i] = row.getDouble(i);
+			}
+		}
+		return values;
+	}
+
+	/************************************************************************************
+	 * collect everything painted apart from the values and the grid
+	 ************************************************************************************/
+	private List<Object> labels() {
+		List<Object> labels = new ArrayList<Object>();
+		labels.add(dataTable.getName());
+		labels.add(dataTable.getUnitLabel());
+		for (DataRow row : dataTable.getDataRows()) {
+			labels.add(row.getName());
+			labels.add(row.isShowPoint());
+			labels.add(row.isShowMeanValue());
+			if (row.isShowMeanValue()) {
+				labels.add(row.getMeanValue());
+			}
+		}
+		return labels;
+	}
+
+	/************************************************************************************
+	 * getter for the image, it is painted again by the next update
+	 * 
+	 * @return the {@link BufferedImage} of type {@link BufferedImage#TYPE_INT_RGB} or
+	 *         null before the first update
+	 ************************************************************************************/
+	public BufferedImage getImage() {
+		return image;
+	}
+
+	/************************************************************************************
+	 * getter for the layout of the last update
+	 * 
+	 * @return the {@link ChartLayout} or null
+	 ************************************************************************************/
+	public ChartLayout getLayout() {
+		return layout;
+	}
+
+	/************************************************************************************
+	 * getter for the region repainted by the last update
+	 * 
+	 * @return the region, empty if nothing was painted
+	 ************************************************************************************/
+	public Rectangle getRepaintedRegion() {
+		return new Rectangle(repainted);
+	}
+
+	/************************************************************************************
+	 * getter for the number of updates that painted the whole chart
+	 * 
+	 * @return number of full repaints
+	 ************************************************************************************/
+	public long getFullRepaintCount() {
+		return fullRepaints;
+	}
+
+	/************************************************************************************
+	 * getter for the number of updates that painted only changed columns
+	 * 
+	 * @return number of partial repaints
+	 ************************************************************************************/
+	public long getPartialRepaintCount() {
+		return partialRepaints;
+	}
+
+	/************************************************************************************
+	 * getter for the table
+	 * 
+	 * @return the {@link DataTable}
+	 ************************************************************************************/
+	public DataTable getDataTable() {
+		return dataTable;
+	}
+
+	/************************************************************************************
+	 * Set how bar charts with more columns than pixels combine adjacent columns into
+	 * one bar, the next update paints the whole chart
+	 * 
+	 * @param aggregation the {@link Aggregation} or null to paint each column
+	 ************************************************************************************/
+	public void setBarAggregation(Aggregation aggregation) {
+		this.barAggregation = aggregation;
+		layout = null;
+	}
+
+	/************************************************************************************
+	 * getter for barAggregation
+	 * 
+	 * @return the {@link Aggregation} of bar charts with more columns than pixels
+	 ************************************************************************************/
+	public Aggregation getBarAggregation() {
+		return barAggregation;
+	}
+}
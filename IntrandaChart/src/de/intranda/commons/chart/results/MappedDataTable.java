@@ -0,0 +1,591 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*************************************************************************************
+ * A MappedDataTable keeps its values off the heap in a memory-mapped file. It is 
+ * meant for tables with hundreds of millions of cells that would not fit into the 
+ * heap as {@link DataRow}s.
+ * 
+ * The rows and columns are fixed when the file is created. Values are stored as 
+ * 8-byte doubles row by row, the labels are looked up in a hash table inside the 
+ * mapped file. The renderers read the values through the usual {@link DataRow} 
+ * methods directly from the mapped file.
+ * 
+ * <pre>
+ * MappedDataTable table = MappedDataTable.create(file, "title", columnLabels, rowNames);
+ * table.setValue(row, column, value);
+ * table.close();
+ * ...
+ * MappedDataTable table = MappedDataTable.open(file, false);
+ * </pre>
+ * 
+ * The statistics of all rows are written to the file by {@link #flush()} and 
+ * {@link #close()}, if a file was not closed properly they are recalculated on 
+ * opening it.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see DataTable
+ *************************************************************************************/
+public class MappedDataTable extends DataTable implements Closeable {
+	private static final long serialVersionUID = 1896408129946367545L;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final int MAGIC = 0x4944544D; // "IDTM"
+	private static final int VERSION = 1;
+
+	/*
+	 * file layout, all numbers big-endian
+	 * 
+	 * header: magic, version, rows, columns, hash slots, statistics valid flag, title offset, statistics offset, values offset
+	 * hash table: one (label hash, column + 1) pair of ints for each slot, linear probing
+	 * label offsets: one long for each column pointing into the strings
+	 * row name offsets: one long for each row pointing into the strings
+	 * strings: length as int followed by the UTF-8 bytes
+	 * statistics: count, sum, sum of squares, min, max for each row
+	 * values: one double for each cell, row by row
+	 */
+	private static final int HEADER_SIZE = 64;
+	private static final int HASH_SLOT_SIZE = 8;
+	private static final int STATISTICS_SIZE = 40;
+	private static final int SEGMENT_SHIFT = 30;
+	private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+	private File file;
+	private boolean writable;
+	private transient RandomAccessFile randomAccessFile;
+	private transient MappedByteBuffer meta;
+	private transient MappedByteBuffer[] segments;
+	private int rowCount;
+	private int columnCount;
+	private int hashSlots;
+	private long statisticsOffset;
+	private long valuesOffset;
+	private boolean statisticsDirty;
+	private RunningStatistics statistics;
+	private LabelIndex columns;
+	private List<DataRow> rows;
+
+	/************************************************************************************
+	 * create a new file for a table with the given rows and columns, all values are 0
+	 * 
+	 * @param file the file to create, an existing file is overwritten
+	 * @param title the title of the table
+	 * @param columnLabels labels of all columns
+	 * @param rowNames names of all rows
+	 * @return the writable {@link MappedDataTable}
+	 * @throws IOException
+	 ************************************************************************************/
+	public static MappedDataTable create(File file, String title, String[] columnLabels, String[] rowNames) throws IOException {
+		int hashSlots = 2;
+		while (hashSlots < 2L * columnLabels.length) {
+			hashSlots *= 2;
+		}
+		byte[][] labelBytes = encode(columnLabels);
+		byte[][] rowNameBytes = encode(rowNames);
+		byte[] titleBytes = (title == null ? "" : title).getBytes(UTF8);
+
+		long labelOffsets = HEADER_SIZE + (long) hashSlots * HASH_SLOT_SIZE;
+		long rowNameOffsets = labelOffsets + 8L * columnLabels.length;
+		long stringsOffset = rowNameOffsets + 8L * rowNames.length;
+		long stringsLength = 4 + titleBytes.length;
+		for (byte[] bytes : labelBytes) {
+			stringsLength += 4 + bytes.length;
+		}
+		for (byte[] bytes : rowNameBytes) {
+			stringsLength += 4 + bytes.length;
+		}
+		long statisticsOffset = align(stringsOffset + stringsLength);
+		long valuesOffset = align(statisticsOffset + (long) STATISTICS_SIZE * rowNames.length);
+		if (valuesOffset > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many labels for a MappedDataTable.");
+		}
+		long length = valuesOffset + 8L * rowNames.length * columnLabels.length;
+
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(0);
+			raf.setLength(length);
+			MappedByteBuffer meta = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, valuesOffset);
+			meta.putInt(0, MAGIC);
+			meta.putInt(4, VERSION);
+			meta.putInt(8, rowNames.length);
+			meta.putInt(12, columnLabels.length);
+			meta.putInt(16, hashSlots);
+			meta.putInt(20, 1);
+			meta.putLong(24, stringsOffset);
+			meta.putLong(32, statisticsOffset);
+			meta.putLong(40, valuesOffset);
+
+			meta.position((int) stringsOffset);
+			putString(meta, titleBytes);
+			for (int c = 0; c < labelBytes.length; c++) {
+				meta.putLong((int) (labelOffsets + 8L * c), meta.position());
+				putString(meta, labelBytes[c]);
+				int hash = labelOf(columnLabels[c]).hashCode();
+				int slot = hash & (hashSlots - 1);
+				while (meta.getInt(HEADER_SIZE + slot * HASH_SLOT_SIZE + 4) != 0) {
+					slot = (slot + 1) & (hashSlots - 1);
+				}
+				meta.putInt(HEADER_SIZE + slot * HASH_SLOT_SIZE, hash);
+				meta.putInt(HEADER_SIZE + slot * HASH_SLOT_SIZE + 4, c + 1);
+			}
+			for (int r = 0; r < rowNameBytes.length; r++) {
+				meta.putLong((int) (rowNameOffsets + 8L * r), meta.position());
+				putString(meta, rowNameBytes[r]);
+			}
+			/* each row starts with zeros in all columns */
+			for (int r = 0; r < rowNames.length; r++) {
+				meta.putLong((int) (statisticsOffset + (long) STATISTICS_SIZE * r), columnLabels.length);
+			}
+			meta.force();
+		} finally {
+			raf.close();
+		}
+		return open(file, true);
+	}
+
+	/************************************************************************************
+	 * open an existing file
+	 * 
+	 * @param file the file created by {@link #create(File, String, String[], String[])}
+	 * @param writable true if values should be changed
+	 * @return the {@link MappedDataTable}
+	 * @throws IOException
+	 ************************************************************************************/
+	public static MappedDataTable open(File file, boolean writable) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, writable ? "rw" : "r");
+		try {
+			return new MappedDataTable(file, raf, writable);
+		} catch (IOException e) {
+			raf.close();
+			throw e;
+		} catch (RuntimeException e) {
+			raf.close();
+			throw e;
+		}
+	}
+
+	private MappedDataTable(File file, RandomAccessFile raf, boolean writable) throws IOException {
+		super(null);
+		this.file = file;
+		this.writable = writable;
+		this.randomAccessFile = raf;
+		FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+		FileChannel channel = raf.getChannel();
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		channel.read(header, 0);
+		if (header.getInt(0) != MAGIC) {
+			throw new IOException("File " + file + " is no MappedDataTable.");
+		}
+		if (header.getInt(4) != VERSION) {
+			throw new IOException("Unsupported MappedDataTable version " + header.getInt(4) + ".");
+		}
+		rowCount = header.getInt(8);
+		columnCount = header.getInt(12);
+		hashSlots = header.getInt(16);
+		statisticsOffset = header.getLong(32);
+		valuesOffset = header.getLong(40);
+		meta = channel.map(mode, 0, valuesOffset);
+		setName(getString(meta.getLong(24)));
+
+		long valuesLength = 8L * rowCount * columnCount;
+		int segmentCount = (int) ((valuesLength + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+		segments = new MappedByteBuffer[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			long start = (long) i << SEGMENT_SHIFT;
+			segments[i] = channel.map(mode, valuesOffset + start, Math.min(SEGMENT_MASK + 1, valuesLength - start));
+		}
+
+		columns = new MappedLabelIndex();
+		boolean statisticsValid = meta.getInt(20) == 1;
+		List<DataRow> mappedRows = new ArrayList<DataRow>(rowCount);
+		statistics = new RunningStatistics();
+		for (int r = 0; r < rowCount; r++) {
+			RunningStatistics rowStatistics;
+			if (statisticsValid) {
+				int offset = (int) (statisticsOffset + (long) STATISTICS_SIZE * r);
+				rowStatistics = new RunningStatistics(meta.getLong(offset), meta.getDouble(offset + 8), meta.getDouble(offset + 16), meta
+						.getDouble(offset + 24), meta.getDouble(offset + 32));
+			} else {
+				rowStatistics = scanRow(r);
+			}
+			mappedRows.add(new MappedDataRow(r, getString(meta.getLong(rowNameOffsetsOffset() + 8 * r)), rowStatistics));
+			statistics.add(rowStatistics);
+		}
+		rows = Collections.unmodifiableList(mappedRows);
+	}
+
+	/************************************************************************************
+	 * get a value
+	 * 
+	 * @param row index of the row
+	 * @param column index of the column
+	 * @return the value
+	 ************************************************************************************/
+	public double getValue(int row, int column) {
+		checkCell(row, column);
+		long position = 8L * ((long) row * columnCount + column);
+		return segments[(int) (position >>> SEGMENT_SHIFT)].getDouble((int) (position & SEGMENT_MASK));
+	}
+
+	/************************************************************************************
+	 * set a value
+	 * 
+	 * @param row index of the row
+	 * @param column index of the column
+	 * @param value the new value
+	 ************************************************************************************/
+	public void setValue(int row, int column, double value) {
+		if (!writable) {
+			throw new UnsupportedOperationException("MappedDataTable is opened read-only.");
+		}
+		double oldValue = getValue(row, column);
+		if (!statisticsDirty) {
+			/* mark the statistics in the file as outdated until the next flush */
+			meta.putInt(20, 0);
+			statisticsDirty = true;
+		}
+		long position = 8L * ((long) row * columnCount + column);
+		segments[(int) (position >>> SEGMENT_SHIFT)].putDouble((int) (position & SEGMENT_MASK), value);
+		((MappedDataRow) rows.get(row)).statistics.replace(oldValue, value);
+		statistics.replace(oldValue, value);
+		modified();
+	}
+
+	/************************************************************************************
+	 * get the column of a label
+	 * 
+	 * @param inLabel the label, null is looked up as "-"
+	 * @return the index of the column or -1 if there is no such label
+	 ************************************************************************************/
+	public int getColumnIndex(String inLabel) {
+		inLabel = labelOf(inLabel);
+		int hash = inLabel.hashCode();
+		byte[] bytes = inLabel.getBytes(UTF8);
+		int slot = hash & (hashSlots - 1);
+		while (true) {
+			int offset = HEADER_SIZE + slot * HASH_SLOT_SIZE;
+			int column = meta.getInt(offset + 4) - 1;
+			if (column < 0) {
+				return -1;
+			}
+			if (meta.getInt(offset) == hash && equalsString(meta.getLong(labelOffsetsOffset() + 8 * column), bytes)) {
+				return column;
+			}
+			slot = (slot + 1) & (hashSlots - 1);
+		}
+	}
+
+	/************************************************************************************
+	 * get the label of a column
+	 * 
+	 * @param column index of the column
+	 * @return the label
+	 ************************************************************************************/
+	public String getColumnLabel(int column) {
+		if (column < 0 || column >= columnCount) {
+			throw new IndexOutOfBoundsException("Column: " + column + ", Size: " + columnCount);
+		}
+		return getString(meta.getLong(labelOffsetsOffset() + 8 * column));
+	}
+
+	/************************************************************************************
+	 * getter for number of columns
+	 * 
+	 * @return number of columns
+	 ************************************************************************************/
+	public int getNumberColumns() {
+		return columnCount;
+	}
+
+	/************************************************************************************
+	 * getter for the mapped file
+	 * 
+	 * @return the file
+	 ************************************************************************************/
+	public File getFile() {
+		return file;
+	}
+
+	/************************************************************************************
+	 * write all changes and the statistics of all rows to the file
+	 ************************************************************************************/
+	public void flush() {
+		if (!writable || !statisticsDirty) {
+			return;
+		}
+		for (MappedByteBuffer segment : segments) {
+			segment.force();
+		}
+		for (int r = 0; r < rowCount; r++) {
+			RunningStatistics rowStatistics = rows.get(r).getStatistics();
+			int offset = (int) (statisticsOffset + (long) STATISTICS_SIZE * r);
+			meta.putLong(offset, rowStatistics.getCount());
+			meta.putDouble(offset + 8, rowStatistics.getSum());
+			meta.putDouble(offset + 16, rowStatistics.getSumOfSquares());
+			meta.putDouble(offset + 24, rowStatistics.getMin());
+			meta.putDouble(offset + 32, rowStatistics.getMax());
+		}
+		meta.putInt(20, 1);
+		meta.force();
+		statisticsDirty = false;
+	}
+
+	/************************************************************************************
+	 * flush and close the file, the mapped values stay readable until the table is
+	 * garbage collected
+	 * 
+	 * @throws IOException
+	 ************************************************************************************/
+	public void close() throws IOException {
+		flush();
+		writable = false;
+		randomAccessFile.close();
+	}
+
+	public List<DataRow> getDataRows() {
+		return rows;
+	}
+
+	public int getDataRowsSize() {
+		return rowCount;
+	}
+
+	public void addDataRow(DataRow newRow) {
+		throw new UnsupportedOperationException("The rows of a MappedDataTable are fixed.");
+	}
+
+	public void removeDataRow(DataRow deleteRow) {
+		throw new UnsupportedOperationException("The rows of a MappedDataTable are fixed.");
+	}
+
+	long getNumberCells() {
+		return (long) rowCount * columnCount;
+	}
+
+	RunningStatistics getStatistics() {
+		if (!statistics.isExtremesValid()) {
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (DataRow row : rows) {
+				RunningStatistics rowStatistics = row.getStatistics();
+				if (rowStatistics.getCount() > 0) {
+					min = Math.min(min, rowStatistics.getMin());
+					max = Math.max(max, rowStatistics.getMax());
+				}
+			}
+			statistics.setExtremes(min, max);
+		}
+		return statistics;
+	}
+
+	private RunningStatistics scanRow(int row) {
+		RunningStatistics rowStatistics = new RunningStatistics();
+		double[] buffer = new double[Math.min(columnCount, 4096)];
+		for (int c = 0; c < columnCount; c += buffer.length) {
+			int length = Math.min(buffer.length, columnCount - c);
+			for (int i = 0; i < length; i++) {
+				buffer[i] = getValue(row, c + i);
+			}
+			rowStatistics.add(buffer, length);
+		}
+		return rowStatistics;
+	}
+
+	private void checkCell(int row, int column) {
+		if (row < 0 || row >= rowCount) {
+			throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + rowCount);
+		}
+		if (column < 0 || column >= columnCount) {
+			throw new IndexOutOfBoundsException("Column: " + column + ", Size: " + columnCount);
+		}
+	}
+
+	private int labelOffsetsOffset() {
+		return HEADER_SIZE + hashSlots * HASH_SLOT_SIZE;
+	}
+
+	private int rowNameOffsetsOffset() {
+		return labelOffsetsOffset() + 8 * columnCount;
+	}
+
+	private String getString(long offset) {
+		int length = meta.getInt((int) offset);
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = meta.get((int) offset + 4 + i);
+		}
+		return new String(bytes, UTF8);
+	}
+
+	private boolean equalsString(long offset, byte[] bytes) {
+		if (meta.getInt((int) offset) != bytes.length) {
+			return false;
+		}
+		for (int i = 0; i < bytes.length; i++) {
+			if (meta.get((int) offset + 4 + i) != bytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void putString(ByteBuffer buffer, byte[] bytes) {
+		buffer.putInt(bytes.length);
+		buffer.put(bytes);
+	}
+
+	private static byte[][] encode(String[] strings) {
+		byte[][] result = new byte[strings.length][];
+		for (int i = 0; i < strings.length; i++) {
+			result[i] = labelOf(strings[i]).getBytes(UTF8);
+		}
+		return result;
+	}
+
+	/* null labels and names are stored as "-", like in a DataRow */
+	private static String labelOf(String string) {
+		return string == null ? "-" : string;
+	}
+
+	private static long align(long offset) {
+		return (offset + 7) & ~7L;
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		throw new NotSerializableException("A MappedDataTable cannot be serialized, transfer the file " + file + " instead.");
+	}
+
+	/*************************************************************************************
+	 * The columns of the mapped file as {@link LabelIndex}, shared by all rows, so 
+	 * each label is shortened only once for the table
+	 *************************************************************************************/
+	private class MappedLabelIndex extends LabelIndex {
+		private static final long serialVersionUID = -4113573962839318526L;
+
+		int add(String inLabel) {
+			int column = getColumnIndex(inLabel);
+			if (column < 0) {
+				throw new IllegalArgumentException("Unknown label '" + inLabel + "', the columns of a MappedDataTable are fixed.");
+			}
+			return column;
+		}
+
+		int append(String inLabel) {
+			throw new UnsupportedOperationException("The columns of a MappedDataTable are fixed.");
+		}
+
+		int indexOf(String inLabel) {
+			return getColumnIndex(inLabel);
+		}
+
+		String get(int index) {
+			return getColumnLabel(index);
+		}
+
+		int size() {
+			return columnCount;
+		}
+
+		List<String> asList() {
+			return new AbstractList<String>() {
+				public String get(int index) {
+					return getColumnLabel(index);
+				}
+
+				public int size() {
+					return columnCount;
+				}
+			};
+		}
+	}
+
+	/*************************************************************************************
+	 * A {@link DataRow} reading and writing one row of the mapped file, the labels 
+	 * are read through the {@link LabelIndex} of the table; other tables copy the row 
+	 * when it is added to them
+	 *************************************************************************************/
+	private class MappedDataRow extends DataRow {
+		private static final long serialVersionUID = 3583532406059547215L;
+		private int row;
+		private RunningStatistics statistics;
+
+		MappedDataRow(int row, String name, RunningStatistics statistics) {
+			super(name, columns, new double[0]);
+			this.row = row;
+			this.statistics = statistics;
+		}
+
+		public void setName(String name) {
+			throw new UnsupportedOperationException("The row names of a MappedDataTable are fixed.");
+		}
+
+		DataTable getTable() {
+			return MappedDataTable.this;
+		}
+
+		void setDouble(int index, double inValue) {
+			setValue(row, index, inValue);
+		}
+
+		public String getLabel(int index) {
+			return getColumnLabel(index);
+		}
+
+		public double getDouble(int index) {
+			return MappedDataTable.this.getValue(row, index);
+		}
+
+		public double getDouble(String inLabel) {
+			int column = getColumnIndex(inLabel);
+			if (column < 0) {
+				return 0;
+			}
+			return MappedDataTable.this.getValue(row, column);
+		}
+
+		RunningStatistics getStatistics() {
+			if (!statistics.isExtremesValid()) {
+				RunningStatistics scanned = scanRow(row);
+				statistics.setExtremes(scanned.getMin(), scanned.getMax());
+			}
+			return statistics;
+		}
+	}
+}
@@ -0,0 +1,288 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import java.io.Serializable;
+
+/*************************************************************************************
+ * RunningStatistics keeps count, sum, sum of squares, minimum and maximum of a set 
+ * of values up to date while the values are written. 
+ * 
+ * Adding and replacing values costs constant time. Only if the current minimum or 
+ * maximum is overwritten with a smaller or bigger value the extremes become invalid
+ * and have to be rescanned by the owner of the values, see {@link #isExtremesValid()}
+ * 
+ * @version 18.10.2026
+ * 
+ * @see DataRow
+ * @see DataTable
+ *************************************************************************************/
+class RunningStatistics implements Serializable {
+	private static final long serialVersionUID = -4718256075385620164L;
+
+	private long count;
+	private double sum;
+	private double sumOfSquares;
+	private double min;
+	private double max;
+	private boolean extremesValid = true;
+
+	/************************************************************************************
+	 * constructor for statistics without any value
+	 ************************************************************************************/
+	RunningStatistics() {
+	}
+
+	/************************************************************************************
+	 * constructor for statistics of values counted before
+	 * 
+	 * @param count number of values
+	 * @param sum sum of all values
+	 * @param sumOfSquares sum of squares of all values
+	 * @param min minimum of all values
+	 * @param max maximum of all values
+	 ************************************************************************************/
+	RunningStatistics(long count, double sum, double sumOfSquares, double min, double max) {
+		this.count = count;
+		this.sum = sum;
+		this.sumOfSquares = sumOfSquares;
+		this.min = min;
+		this.max = max;
+	}
+
+	/************************************************************************************
+	 * add a number of zero values
+	 * 
+	 * @param number how many zeros to add
+	 ************************************************************************************/
+	void addZeros(long number) {
+		if (number <= 0) {
+			return;
+		}
+		if (count == 0) {
+			min = 0;
+			max = 0;
+			extremesValid = true;
+		} else {
+			min = Math.min(min, 0);
+			max = Math.max(max, 0);
+		}
+		count += number;
+	}
+
+	/************************************************************************************
+	 * add a number of values at once
+	 * 
+	 * @param values array holding the values
+	 * @param length number of values to add from the start of the array
+	 ************************************************************************************/
+	void add(double[] values, int length) {
+		if (length <= 0) {
+			return;
+		}
+		double newSum = 0;
+		double newSumOfSquares = 0;
+		double newMin = values[0];
+		double newMax = values[0];
+		for (int i = 0; i < length; i++) {
+			double value = values[i];
+			newSum += value;
+			newSumOfSquares += value * value;
+			if (value < newMin) {
+				newMin = value;
+			}
+			if (value > newMax) {
+				newMax = value;
+			}
+		}
+		if (count == 0) {
+			min = newMin;
+			max = newMax;
+			extremesValid = true;
+		} else {
+			min = Math.min(min, newMin);
+			max = Math.max(max, newMax);
+		}
+		count += length;
+		sum += newSum;
+		sumOfSquares += newSumOfSquares;
+	}
+
+	/************************************************************************************
+	 * replace one of the already counted values
+	 * 
+	 * @param oldValue the value before
+	 * @param newValue the value after
+	 ************************************************************************************/
+	void replace(double oldValue, double newValue) {
+		sum += newValue - oldValue;
+		sumOfSquares += newValue * newValue - oldValue * oldValue;
+		if (extremesValid) {
+			if (newValue >= max) {
+				max = newValue;
+			} else if (oldValue == max) {
+				extremesValid = false;
+			}
+			if (newValue <= min) {
+				min = newValue;
+			} else if (oldValue == min) {
+				extremesValid = false;
+			}
+		}
+	}
+
+	/************************************************************************************
+	 * add all values of other statistics to this one
+	 * 
+	 * @param other the {@link RunningStatistics} to add
+	 ************************************************************************************/
+	void add(RunningStatistics other) {
+		if (other.count == 0) {
+			return;
+		}
+		if (count == 0) {
+			min = other.min;
+			max = other.max;
+			extremesValid = other.extremesValid;
+		} else if (extremesValid && other.extremesValid) {
+			min = Math.min(min, other.min);
+			max = Math.max(max, other.max);
+		} else {
+			extremesValid = false;
+		}
+		count += other.count;
+		sum += other.sum;
+		sumOfSquares += other.sumOfSquares;
+	}
+
+	/************************************************************************************
+	 * remove all values of other statistics from this one
+	 * 
+	 * @param other the {@link RunningStatistics} to remove
+	 ************************************************************************************/
+	void remove(RunningStatistics other) {
+		if (other.count == 0) {
+			return;
+		}
+		count -= other.count;
+		sum -= other.sum;
+		sumOfSquares -= other.sumOfSquares;
+		if (count <= 0) {
+			reset();
+		} else if (extremesValid && (!other.extremesValid || other.min <= min || other.max >= max)) {
+			extremesValid = false;
+		}
+	}
+
+	/************************************************************************************
+	 * remove all values
+	 ************************************************************************************/
+	void reset() {
+		count = 0;
+		sum = 0;
+		sumOfSquares = 0;
+		min = 0;
+		max = 0;
+		extremesValid = true;
+	}
+
+	/************************************************************************************
+	 * set minimum and maximum after a rescan of all values
+	 * 
+	 * @param min the minimum of all values
+	 * @param max the maximum of all values
+	 ************************************************************************************/
+	void setExtremes(double min, double max) {
+		this.min = min;
+		this.max = max;
+		extremesValid = true;
+	}
+
+	/************************************************************************************
+	 * check if minimum and maximum are still known or if a rescan is needed
+	 * 
+	 * @return true if minimum and maximum are valid
+	 ************************************************************************************/
+	boolean isExtremesValid() {
+		return extremesValid;
+	}
+
+	/************************************************************************************
+	 * getter for the number of values
+	 * 
+	 * @return number of values
+	 ************************************************************************************/
+	long getCount() {
+		return count;
+	}
+
+	/************************************************************************************
+	 * getter for the sum of all values
+	 * 
+	 * @return sum
+	 ************************************************************************************/
+	double getSum() {
+		return sum;
+	}
+
+	/************************************************************************************
+	 * getter for the sum of squares of all values
+	 * 
+	 * @return sum of squares
+	 ************************************************************************************/
+	double getSumOfSquares() {
+		return sumOfSquares;
+	}
+
+	/************************************************************************************
+	 * getter for the minimum, only meaningful if the extremes are valid
+	 * 
+	 * @return minimum
+	 ************************************************************************************/
+	double getMin() {
+		return min;
+	}
+
+	/************************************************************************************
+	 * getter for the maximum, only meaningful if the extremes are valid
+	 * 
+	 * @return maximum
+	 ************************************************************************************/
+	double getMax() {
+		return max;
+	}
+
+	/************************************************************************************
+	 * calculate the standard deviation of values counted here and additional zeros
+	 * 
+	 * @param number total number of values including the zeros not counted here
+	 * @return standard deviation
+	 ************************************************************************************/
+	double getStandardDeviation(long number) {
+		double mean = sum / number;
+		double variance = sumOfSquares / number - mean * mean;
+		if (variance < 0) {
+			/* rounding errors */
+			variance = 0;
+		}
+		return Math.sqrt(variance);
+	}
+}
@@ -0,0 +1,239 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*************************************************************************************
+ * A SlidingLabelIndex is the {@link LabelIndex} of {@link SlidingWindowDataRow}s, it
+ * holds only the last labels added. Adding a new label to a full window drops the 
+ * oldest label and with it the values of this column in all rows of the window, so 
+ * the rows of a {@link DataTable} sharing the window always have the same columns.
+ * 
+ * The labels are kept in a ring, so adding, dropping and looking up labels costs 
+ * constant time; each label is shortened once when it is added.
+ * 
+ * The rows are held weakly: rows removed from their table or copies in tables that 
+ * are not used anymore are left to the garbage collector and dropped from the 
+ * window when the next label is added.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see SlidingWindowDataRow
+ *************************************************************************************/
+class SlidingLabelIndex extends LabelIndex {
+	private static final long serialVersionUID = -2740359718523167741L;
+
+	private final String[] windowLabels;
+	private final String[] windowShortLabels;
+	// sequence numbers of the oldest label in the window and of the next label to add
+	private long first = 0;
+	private long next = 0;
+	// sequence number of each label in the window
+	private final Map<String, Long> positions;
+	// the rows storing their values in this window, registered again when they are deserialized
+	private transient List<WeakReference<SlidingWindowDataRow>> rows;
+
+	/************************************************************************************
+	 * constructor for an empty window
+	 * 
+	 * @param capacity the number of labels kept, at least 1
+	 ************************************************************************************/
+	SlidingLabelIndex(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("The capacity of a SlidingWindowDataRow must be at least 1.");
+		}
+		windowLabels = new String[capacity];
+		windowShortLabels = new String[capacity];
+		positions = new HashMap<String, Long>(capacity * 2);
+	}
+
+	/************************************************************************************
+	 * get the column of a label, an unknown label is added at the end of the window
+	 * and the oldest label is dropped if the window is full
+	 * 
+	 * @param inLabel the label to look up
+	 * @return the column index of the label
+	 ************************************************************************************/
+	int add(String inLabel) {
+		return add(inLabel, null, 0);
+	}
+
+	/************************************************************************************
+	 * get the column of a label, an unknown label is added at the end of the window
+	 * with the given value in one row and 0 in all others
+	 * 
+	 * @param inLabel the label to look up
+	 * @param writer the row getting the value, or null
+	 * @param inValue the value of the new column in the writer
+	 * @return the column index of the label
+	 ************************************************************************************/
+	int add(String inLabel, SlidingWindowDataRow writer, double inValue) {
+		Long position = positions.get(inLabel);
+		if (position != null) {
+			return (int) (position.longValue() - first);
+		}
+		boolean full = next - first == windowLabels.length;
+		if (full) {
+			positions.remove(windowLabels[slot(first)]);
+			first++;
+		}
+		int slot = slot(next);
+		windowLabels[slot] = inLabel;
+		windowShortLabels[slot] = DataRow.shortenLabel(inLabel);
+		positions.put(inLabel, Long.valueOf(next));
+		next++;
+		/* the new column takes the place of the dropped one in all rows, collected rows are dropped */
+		if (rows != null) {
+			int live = 0;
+			for (int i = 0; i < rows.size(); i++) {
+				SlidingWindowDataRow row = rows.get(i).get();
+				if (row != null) {
+					row.columnAdded(next - 1, full, row == writer ? inValue : 0);
+					rows.set(live++, rows.get(i));
+				}
+			}
+			rows.subList(live, rows.size()).clear();
+		}
+		return (int) (next - 1 - first);
+	}
+
+	int append(String inLabel) {
+		throw new UnsupportedOperationException("The labels of a sliding window are unique.");
+	}
+
+	int indexOf(String inLabel) {
+		Long position = positions.get(inLabel);
+		if (position == null) {
+			return -1;
+		}
+		return (int) (position.longValue() - first);
+	}
+
+	String get(int index) {
+		return windowLabels[slot(getPosition(index))];
+	}
+
+	String getShortLabel(int index) {
+		return windowShortLabels[slot(getPosition(index))];
+	}
+
+	int size() {
+		return (int) (next - first);
+	}
+
+	/* labels leave the window, so all labels in it are measured */
+	int getMaxShortLabelWidth(StringWidthCache widths) {
+		int maxWidth = 0;
+		for (long position = first; position < next; position++) {
+			maxWidth = Math.max(maxWidth, widths.stringWidth(windowShortLabels[slot(position)]));
+		}
+		return maxWidth;
+	}
+
+	List<String> asList() {
+		return new AbstractList<String>() {
+			public String get(int index) {
+				return SlidingLabelIndex.this.get(index);
+			}
+
+			public int size() {
+				return SlidingLabelIndex.this.size();
+			}
+		};
+	}
+
+	DataRow createRow(String name) {
+		return new SlidingWindowDataRow(name, this);
+	}
+
+	/************************************************************************************
+	 * add a row that stores its values in this window, it gets informed about every
+	 * new column as long as it is not collected as garbage
+	 * 
+	 * @param row the {@link SlidingWindowDataRow}
+	 ************************************************************************************/
+	void register(SlidingWindowDataRow row) {
+		if (rows == null) {
+			rows = new ArrayList<WeakReference<SlidingWindowDataRow>>();
+		}
+		rows.add(new WeakReference<SlidingWindowDataRow>(row));
+	}
+
+	/************************************************************************************
+	 * getter for the number of registered rows, collected rows are counted until the 
+	 * next label is added
+	 * 
+	 * @return number of rows
+	 ************************************************************************************/
+	int getRowCount() {
+		return rows == null ? 0 : rows.size();
+	}
+
+	/************************************************************************************
+	 * get the sequence number of a column
+	 * 
+	 * @param index the column index, 0 for the oldest label in the window
+	 * @return the sequence number
+	 ************************************************************************************/
+	long getPosition(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+		}
+		return first + index;
+	}
+
+	/************************************************************************************
+	 * getter for the sequence number of the oldest label in the window
+	 * 
+	 * @return sequence number
+	 ************************************************************************************/
+	long getFirst() {
+		return first;
+	}
+
+	/************************************************************************************
+	 * getter for the sequence number of the next label to add
+	 * 
+	 * @return sequence number
+	 ************************************************************************************/
+	long getNext() {
+		return next;
+	}
+
+	/************************************************************************************
+	 * getter for the capacity
+	 * 
+	 * @return the number of labels kept in the window
+	 ************************************************************************************/
+	int getCapacity() {
+		return windowLabels.length;
+	}
+
+	private int slot(long position) {
+		return (int) (position % windowLabels.length);
+	}
+}
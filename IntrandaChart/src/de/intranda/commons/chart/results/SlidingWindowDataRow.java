@@ -0,0 +1,291 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+
+/*************************************************************************************
+ * A {@link DataRow} holding only the last values added, for example the last buckets
+ * of a live statistic
+ * 
+ * The row has a fixed capacity. Adding a value with a new label to a full row drops
+ * the oldest label and value, adding a value with a label that is still in the
+ * window replaces its value, like in every {@link DataRow}. The values are kept in a
+ * ring, so adding, dropping and looking up values costs constant time.
+ * 
+ * Sum and sum of squares are updated with each value. Minimum and maximum are kept
+ * in monotonic queues of the window, so they cost constant amortized time as well;
+ * only replacing a value that is not the newest one, or the newest one in the
+ * direction of the other extreme, has the queue of that extreme rebuilt from the
+ * window when the statistics are read next.
+ * 
+ * The labels are kept in a {@link SlidingLabelIndex}. Several rows can share one 
+ * window, like all series of a live chart: a new label added to any of them moves 
+ * the window of all of them, the others get 0 for it. A {@link DataTable} whose 
+ * first row is a sliding window row keeps all its rows in this window, other rows 
+ * added to it are copied into the window like into the columns of every table.
+ * 
+ * <pre>
+ * SlidingWindowDataRow requests = new SlidingWindowDataRow("requests", 60);
+ * SlidingWindowDataRow errors = new SlidingWindowDataRow("errors", requests);
+ * table.addDataRow(requests);
+ * table.addDataRow(errors);
+ * </pre>
+ * 
+ * @version 18.10.2026
+ * 
+ * @see DataRow
+ *************************************************************************************/
+public class SlidingWindowDataRow extends DataRow {
+	private static final long serialVersionUID = 3518562017428736904L;
+
+	private final SlidingLabelIndex window;
+	private final double[] windowValues;
+	private final RunningStatistics windowStatistics = new RunningStatistics();
+	private final ExtremeQueue maxima;
+	private final ExtremeQueue minima;
+
+	/************************************************************************************
+	 * public constructor for an empty row with a window of its own
+	 * 
+	 * @param name the name of the row
+	 * @param capacity the number of values kept, at least 1
+	 ************************************************************************************/
+	public SlidingWindowDataRow(String name, int capacity) {
+		this(name, new SlidingLabelIndex(capacity));
+	}
+
+	/************************************************************************************
+	 * public constructor for a row sharing the window of another row, it has 0 in all
+	 * columns of the window
+	 * 
+	 * @param name the name of the row
+	 * @param sameWindow the row whose window is shared
+	 ************************************************************************************/
+	public SlidingWindowDataRow(String name, SlidingWindowDataRow sameWindow) {
+		this(name, sameWindow.window);
+	}
+
+	/************************************************************************************
+	 * constructor for a row storing its values in the given window
+	 * 
+	 * @param name the name of the row
+	 * @param window the {@link SlidingLabelIndex} to use for this row
+	 ************************************************************************************/
+	SlidingWindowDataRow(String name, SlidingLabelIndex window) {
+		super(name, window, new double[0]);
+		this.window = window;
+		windowValues = new double[window.getCapacity()];
+		maxima = new ExtremeQueue(windowValues.length, true);
+		minima = new ExtremeQueue(windowValues.length, false);
+		windowStatistics.addZeros(window.size());
+		for (long position = window.getFirst(); position < window.getNext(); position++) {
+			maxima.push(position, windowValues);
+			minima.push(position, windowValues);
+		}
+		window.register(this);
+	}
+
+	/************************************************************************************
+	 * add a value to the end of the window, the oldest value is dropped if the window
+	 * is full; an existing value with the same label is replaced in its place
+	 * 
+	 * @param inLabel the label for the value
+	 * @param inValue the value as a primitive double
+	 ************************************************************************************/
+	public void addValue(String inLabel, double inValue) {
+		if (inLabel == null) {
+			inLabel = "-";
+		}
+		int index = window.indexOf(inLabel);
+		if (index >= 0) {
+			setDouble(index, inValue);
+		} else {
+			window.add(inLabel, this, inValue);
+		}
+	}
+
+	/************************************************************************************
+	 * set the value of a column of the window
+	 * 
+	 * @param index index of the value in the window, 0 for the oldest one
+	 * @param inValue the value as a primitive double
+	 ************************************************************************************/
+	void setDouble(int index, double inValue) {
+		long position = window.getPosition(index);
+		int slot = slot(position);
+		double oldValue = windowValues[slot];
+		windowValues[slot] = inValue;
+		windowStatistics.replace(oldValue, inValue);
+		maxima.replaced(position, oldValue, window.getNext() - 1, windowValues);
+		minima.replaced(position, oldValue, window.getNext() - 1, windowValues);
+		if (getTable() != null) {
+			getTable().valueWritten(0, oldValue, inValue);
+		}
+	}
+
+	/************************************************************************************
+	 * a new column was added to the window; if the window was full it takes the place
+	 * of the oldest column, whose value leaves the row
+	 * 
+	 * @param position the sequence number of the new column
+	 * @param dropped true if the oldest column was dropped
+	 * @param inValue the value of the new column in this row
+	 ************************************************************************************/
+	void columnAdded(long position, boolean dropped, double inValue) {
+		int slot = slot(position);
+		long zeros = 0;
+		double oldValue = 0;
+		if (dropped) {
+			oldValue = windowValues[slot];
+			maxima.evict(position - windowValues.length);
+			minima.evict(position - windowValues.length);
+		} else {
+			/* the new column is counted as zero, like a new column of a DataRow */
+			zeros = 1;
+			windowStatistics.addZeros(zeros);
+		}
+		windowValues[slot] = inValue;
+		windowStatistics.replace(oldValue, inValue);
+		maxima.push(position, windowValues);
+		minima.push(position, windowValues);
+		if (getTable() != null) {
+			getTable().valueWritten(zeros, oldValue, inValue);
+		}
+	}
+
+	private int slot(long position) {
+		return (int) (position % windowValues.length);
+	}
+
+	/* the window does not serialize its rows, each row registers again */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		window.register(this);
+	}
+
+	public double getDouble(int index) {
+		return windowValues[slot(window.getPosition(index))];
+	}
+
+	public double getDouble(String inLabel) {
+		int index = window.indexOf(inLabel);
+		if (index < 0) {
+			return 0;
+		}
+		return getDouble(index);
+	}
+
+	/************************************************************************************
+	 * getter for the statistics of the values in the window, minimum and maximum are
+	 * taken from the monotonic queues
+	 * 
+	 * @return {@link RunningStatistics}
+	 ************************************************************************************/
+	RunningStatistics getStatistics() {
+		if (window.size() > 0) {
+			windowStatistics.setExtremes(minima.getExtreme(window.getFirst(), window.getNext(), windowValues), maxima.getExtreme(window
+					.getFirst(), window.getNext(), windowValues));
+		}
+		return windowStatistics;
+	}
+
+	/************************************************************************************
+	 * getter for the capacity
+	 * 
+	 * @return the number of values kept in the window
+	 ************************************************************************************/
+	public int getCapacity() {
+		return windowValues.length;
+	}
+
+	/*************************************************************************************
+	 * A monotonic queue of the sequence numbers of the values in the window that can
+	 * still become the maximum (or minimum): each one is bigger (or smaller) than all
+	 * newer ones, so the first one is the extreme of the window
+	 *************************************************************************************/
+	private static class ExtremeQueue implements Serializable {
+		private static final long serialVersionUID = -1652297480613862257L;
+		private final long[] positions;
+		private final boolean maximum;
+		private int head = 0;
+		private int size = 0;
+		// false if a replaced value broke the order, the queue is rebuilt when read
+		private boolean valid = true;
+
+		ExtremeQueue(int capacity, boolean maximum) {
+			this.positions = new long[capacity];
+			this.maximum = maximum;
+		}
+
+		/* drop the older values that can never be the extreme again, then append */
+		void push(long position, double[] values) {
+			if (!valid) {
+				return;
+			}
+			double value = values[(int) (position % values.length)];
+			while (size > 0) {
+				double last = values[(int) (positions[(head + size - 1) % positions.length] % values.length)];
+				if (maximum ? last > value : last < value) {
+					break;
+				}
+				size--;
+			}
+			positions[(head + size) % positions.length] = position;
+			size++;
+		}
+
+		void evict(long position) {
+			if (valid && size > 0 && positions[head] == position) {
+				head = (head + 1) % positions.length;
+				size--;
+			}
+		}
+
+		void replaced(long position, double oldValue, long newest, double[] values) {
+			if (!valid) {
+				return;
+			}
+			double newValue = values[(int) (position % values.length)];
+			if (position == newest && (maximum ? newValue >= oldValue : newValue <= oldValue)) {
+				/* the newest value is always the last in the queue and now drops even more older ones */
+				size--;
+				push(position, values);
+			} else if (Double.compare(newValue, oldValue) != 0) {
+				valid = false;
+			}
+		}
+
+		double getExtreme(long first, long next, double[] values) {
+			if (!valid) {
+				valid = true;
+				head = 0;
+				size = 0;
+				for (long position = first; position < next; position++) {
+					push(position, values);
+				}
+			}
+			return values[(int) (positions[head] % values.length)];
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.font.FontRenderContext;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/*************************************************************************************
+ * Widths of strings in pixels, measured once for each font and string and shared by 
+ * all charts
+ * 
+ * There is one cache for each {@link Font} and {@link FontRenderContext}, it can be 
+ * used by several threads at the same time. To keep the memory bounded a cache is 
+ * emptied when it reaches {@value #MAX_STRINGS} strings, all caches are dropped when 
+ * there are more than {@value #MAX_FONTS} fonts.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see ChartLayout
+ * @see ChartPainter
+ *************************************************************************************/
+final class StringWidthCache {
+	private static final int MAX_FONTS = 32;
+	private static final int MAX_STRINGS = 50000;
+
+	private static final ConcurrentMap<List<Object>, StringWidthCache> CACHES = new ConcurrentHashMap<List<Object>, StringWidthCache>();
+
+	private final FontMetrics fm;
+	private final ConcurrentMap<String, Integer> widths = new ConcurrentHashMap<String, Integer>();
+
+	private StringWidthCache(FontMetrics fm) {
+		this.fm = fm;
+	}
+
+	/************************************************************************************
+	 * get the cache for the font of the given metrics
+	 * 
+	 * @param fm the {@link FontMetrics} to measure with
+	 * @return the shared cache for the font and render context of the metrics
+	 ************************************************************************************/
+	static StringWidthCache get(FontMetrics fm) {
+		List<Object> key = Arrays.<Object> asList(fm.getFont(), fm.getFontRenderContext());
+		StringWidthCache cache = CACHES.get(key);
+		if (cache == null) {
+			if (CACHES.size() >= MAX_FONTS) {
+				CACHES.clear();
+			}
+			cache = new StringWidthCache(fm);
+			StringWidthCache other = CACHES.putIfAbsent(key, cache);
+			if (other != null) {
+				cache = other;
+			}
+		}
+		return cache;
+	}
+
+	/************************************************************************************
+	 * get the width of a string
+	 * 
+	 * @param str the string to measure
+	 * @return the advance width in pixels, the same as from 
+	 *         {@link FontMetrics#stringWidth(String)}
+	 ************************************************************************************/
+	int stringWidth(String str) {
+		Integer width = widths.get(str);
+		if (width == null) {
+			if (widths.size() >= MAX_STRINGS) {
+				widths.clear();
+			}
+			width = fm.stringWidth(str);
+			widths.put(str, width);
+		}
+		return width;
+	}
+}
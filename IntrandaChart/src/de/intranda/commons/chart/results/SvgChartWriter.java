@@ -0,0 +1,552 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.io.IOException;
+import java.util.List;
+
+import de.intranda.commons.chart.results.ChartDraw.PointStyle;
+
+/*************************************************************************************
+ * Writes a chart with a computed {@link ChartLayout} as SVG
+ * 
+ * The SVG shows the same chart as the {@link ChartPainter} paints into an image.
+ * Colors, strokes and the font are written once as style classes, the elements
+ * only refer to them. All bars of a row are one path, the lines of a row one
+ * polyline and the grid and the axes one path each, so the size of the SVG grows
+ * only with the number of values and labels. Coordinates are rounded to a tenth of
+ * a pixel.
+ * 
+ * The text is streamed to the target, nothing but the current number is built in
+ * memory. Like the layout, a writer can be used by several threads at the same time.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see ChartPainter
+ *************************************************************************************/
+public final class SvgChartWriter {
+	private static final int LEGENDPADDING = ChartLayout.LEGENDPADDING;
+	private static final int BORDERRIGHT = ChartLayout.BORDERRIGHT;
+
+	private final ChartLayout layout;
+	private final DataTable dataTable;
+	private final FontMetrics fm;
+	private final ChartTheme theme;
+	private final PointStyle pointStyle;
+
+	/************************************************************************************
+	 * create a writer
+	 * 
+	 * @param layout the {@link ChartLayout} to write
+	 * @param fm the {@link FontMetrics} the layout was computed with
+	 * @param theme the {@link ChartTheme} with colors and strokes
+	 * @param pointStyle the style of points in the legend and line charts, null for
+	 *        squares
+	 ************************************************************************************/
+	public SvgChartWriter(ChartLayout layout, FontMetrics fm, ChartTheme theme, PointStyle pointStyle) {
+		if (layout == null || fm == null || theme == null) {
+			throw new IllegalArgumentException("Layout, FontMetrics and ChartTheme must not be null.");
+		}
+		this.layout = layout;
+		this.dataTable = layout.getDataTable();
+		this.fm = fm;
+		this.theme = theme;
+		this.pointStyle = pointStyle == null ? PointStyle.SQUARE : pointStyle;
+	}
+
+	/************************************************************************************
+	 * write the chart as SVG document
+	 * 
+	 * @param out the target to append the SVG to
+	 * @throws IOException if the target cannot be written
+	 ************************************************************************************/
+	public void write(Appendable out) throws IOException {
+		int width = layout.getWidth();
+		int height = layout.getHeight();
+		int rows = dataTable.getDataRows().size();
+
+		out.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(Integer.toString(width)).append("\" height=\"")
+				.append(Integer.toString(height)).append("\" viewBox=\"0 0 ").append(Integer.toString(width)).append(' ')
+				.append(Integer.toString(height)).append("\">");
+		writeStyle(out, rows);
+
+		// white background
+		out.append("<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>");
+
+		for (int d = 0; d < rows; d++) {
+			switch (layout.getChartType()) {
+			case BAR:
+				writeBars(out, d);
+				break;
+			case LINE:
+				writeLine(out, d);
+				break;
+			}
+		}
+
+		// show meanValues as line in front of bars
+		for (int d = 0; d < rows; d++) {
+			double meanValue = layout.getMeanValue(d);
+			if (!Double.isNaN(meanValue)) {
+				double ypos = layout.getChartBottom() - (meanValue * layout.getChartHeight() / layout.getYMaxValue() - 1);
+				out.append("<path class=\"m s").append(Integer.toString(d)).append("\" d=\"M");
+				number(out, layout.getBorderLeft());
+				out.append(' ');
+				number(out, ypos);
+				out.append('H');
+				number(out, width - BORDERRIGHT);
+				out.append("\"/>");
+			}
+		}
+
+		if (rows > 0) {
+			// draw axes and labels
+			writeAxis(out);
+
+			// show title if non-empty
+			if (dataTable.getName() != null && dataTable.getName().length() > 0) {
+				writeText(out, dataTable.getName(), width / 2, layout.getBorderTop() / 2, "c", null);
+			}
+		}
+
+		if (rows > 1) {
+			// show the legend if there's more than one SimpleDataSet
+			writeLegend(out);
+		}
+
+		/* if there should be displayed some label at the x-axis */
+		if (layout.isShowUnitLabel()) {
+			writeText(out, dataTable.getUnitLabel(), width / 2, height - layout.getLegendHeight() - LEGENDPADDING + fm.getHeight() / 2,
+					"c", null);
+		}
+
+		out.append("</svg>");
+	}
+
+	/************************************************************************************
+	 * write the style classes: text, axes (a), grid (g), mean lines (m), lines of line
+	 * charts (l) and for each row its bar gradient (b), its point fill (p) and its
+	 * stroke color (s)
+	 * 
+	 * @param out the target
+	 * @param rows the number of rows
+	 ************************************************************************************/
+	private void writeStyle(Appendable out, int rows) throws IOException {
+		out.append("<style>text{font:");
+		Font font = fm.getFont();
+		if (font.isItalic()) {
+			out.append("italic ");
+		}
+		if (font.isBold()) {
+			out.append("bold ");
+		}
+		out.append(Integer.toString(font.getSize())).append("px \"");
+		escape(out, font.getFamily());
+		out.append("\",").append(getGenericFamily(font)).append("}.c{text-anchor:middle}.r{text-anchor:end}.a{fill:none;stroke:#000;");
+		writeStroke(out, theme.getLineStroke());
+		out.append("}.g{fill:none;stroke:#000;");
+		writeStroke(out, theme.getGridStroke());
+		out.append("}.m{fill:none;");
+		writeStroke(out, theme.getMeanStroke());
+		out.append("}.l{fill:none;");
+		writeStroke(out, theme.getLineStroke());
+		out.append('}');
+		for (int d = 0; d < rows; d++) {
+			String color = toHex(theme.getColor(d));
+			out.append(".b").append(Integer.toString(d)).append("{fill:url(#g").append(Integer.toString(d)).append(")}.p")
+					.append(Integer.toString(d)).append("{fill:").append(color).append("}.s").append(Integer.toString(d))
+					.append("{stroke:").append(color).append('}');
+		}
+		out.append("</style>");
+
+		if (layout.getChartType() == ChartDraw.ChartType.BAR && rows > 0) {
+			// the same gradient as the VerticalGradientPaint of the painter
+			out.append("<defs>");
+			for (int d = 0; d < rows; d++) {
+				out.append("<linearGradient id=\"g").append(Integer.toString(d)).append("\" gradientUnits=\"userSpaceOnUse\" x1=\"0\" y1=\"")
+						.append(Integer.toString(layout.getBorderTop())).append("\" x2=\"0\" y2=\"")
+						.append(Integer.toString(2 * layout.getChartHeight())).append("\"><stop stop-color=\"")
+						.append(toHex(theme.getColor(d))).append("\"/><stop offset=\"1\" stop-color=\"#fff\"/></linearGradient>");
+			}
+			out.append("</defs>");
+		}
+	}
+
+	/************************************************************************************
+	 * write the bars of one row as one path
+	 * 
+	 * @param out the target
+	 * @param d the index of the row
+	 ************************************************************************************/
+	private void writeBars(Appendable out, int d) throws IOException {
+		DataRow row = dataTable.getDataRows().get(d);
+		int rows = dataTable.getDataRows().size();
+		int columns = layout.getXTickMarks().size();
+		int xGridWidth = layout.getXGridWidth();
+		double barWidth = 0.5 * xGridWidth / rows;
+		int size = row.getNumberValues();
+
+		out.append("<path class=\"b").append(Integer.toString(d)).append("\" d=\"");
+		for (int i = 0; i < size; i++) {
+			double xpos = layout.getBorderLeft() + 0.25 * xGridWidth + (d + 0.5) * barWidth + i * layout.getChartWidth() / columns;
+			double barsize = row.getDouble(i) * layout.getChartHeight() / layout.getYMaxValue() - 1;
+			// like an empty rectangle of the painter, bars without height are not drawn
+			if (barsize > 0) {
+				out.append('M');
+				number(out, xpos - 0.5 * barWidth);
+				out.append(' ');
+				number(out, layout.getChartBottom() - barsize);
+				out.append('h');
+				number(out, barWidth);
+				out.append('v');
+				number(out, barsize);
+				out.append('h');
+				number(out, -barWidth);
+				out.append('z');
+			}
+		}
+		out.append("\"/>");
+	}
+
+	/************************************************************************************
+	 * write the points and the line of one row
+	 * 
+	 * @param out the target
+	 * @param d the index of the row
+	 ************************************************************************************/
+	private void writeLine(Appendable out, int d) throws IOException {
+		DataRow row = dataTable.getDataRows().get(d);
+		// level of detail: draw only the values selected by the layout
+		int[] selected = layout.getSelectedValues(d);
+		int points = selected == null ? row.getNumberValues() : selected.length;
+
+		if (row.isShowPoint() && points > 0) {
+			writePointsStart(out, d);
+			for (int p = 0; p < points; p++) {
+				int i = selected == null ? p : selected[p];
+				writePoint(out, layout.getXPosition(i), layout.getYPosition(row.getDouble(i)));
+			}
+			writePointsEnd(out);
+		}
+
+		if (points > 1) {
+			out.append("<polyline class=\"l s").append(Integer.toString(d)).append("\" points=\"");
+			for (int p = 0; p < points; p++) {
+				int i = selected == null ? p : selected[p];
+				if (p > 0) {
+					out.append(' ');
+				}
+				number(out, layout.getXPosition(i));
+				out.append(',');
+				number(out, layout.getYPosition(row.getDouble(i)));
+			}
+			out.append("\"/>");
+		}
+	}
+
+	/************************************************************************************
+	 * write legend for chart
+	 * 
+	 * @param out the target
+	 ************************************************************************************/
+	private void writeLegend(Appendable out) throws IOException {
+		int legendWidth = layout.getLegendWidth();
+
+		/* without unit-label, legend ist smaller */
+		int legendHeightDependingOnUnitLabel = layout.getLegendHeight();
+		if (layout.isShowUnitLabel()) {
+			legendHeightDependingOnUnitLabel -= LEGENDPADDING;
+			legendHeightDependingOnUnitLabel -= fm.getHeight();
+		}
+
+		// draw a box around the legend
+		out.append("<rect class=\"a\" x=\"").append(Integer.toString(layout.getWidth() / 2 - legendWidth / 2)).append("\" y=\"")
+				.append(Integer.toString(layout.getHeight() - legendHeightDependingOnUnitLabel - LEGENDPADDING)).append("\" width=\"")
+				.append(Integer.toString(legendWidth)).append("\" height=\"").append(Integer.toString(legendHeightDependingOnUnitLabel))
+				.append("\"/>");
+
+		for (int d = 0; d < dataTable.getDataRows().size(); d++) {
+			DataRow row = dataTable.getDataRows().get(d);
+			// current position inside the legend in pixels
+			int entryXPos = layout.getLegendEntryX(d);
+			int entryYPos = layout.getLegendEntryY(d);
+
+			// draw a colored box
+			writePointsStart(out, d);
+			writePoint(out, entryXPos + fm.getHeight() / 2, entryYPos);
+			writePointsEnd(out);
+
+			// show the text
+			writeText(out, row.getName(), entryXPos + fm.getHeight(), entryYPos, null, null);
+		}
+	}
+
+	/************************************************************************************
+	 * write axes, grid, ticks and their labels
+	 * 
+	 * @param out the target
+	 ************************************************************************************/
+	private void writeAxis(Appendable out) throws IOException {
+		int borderLeft = layout.getBorderLeft();
+		int chartBottom = layout.getChartBottom();
+		int right = layout.getWidth() - BORDERRIGHT;
+		List<String> xtickMarks = layout.getXTickMarks();
+		List<String> ytickMarks = layout.getYTickMarks();
+		int xMarkerTextDistance = layout.getXMarkerTextDistance();
+		int ys = ytickMarks.size();
+		int xs = xtickMarks.size();
+		// with more ticks than pixels only the ticks with text are drawn
+		int tickStep = layout.getXGridWidth() > 0 ? 1 : xMarkerTextDistance;
+
+		// grid lines
+		if (ys > 0) {
+			out.append("<path class=\"g\" d=\"");
+			for (int i = 0; i < ys; i++) {
+				out.append('M').append(Integer.toString(borderLeft)).append(' ').append(Integer.toString(layout.getYTickPosition(i)))
+						.append('H').append(Integer.toString(right));
+			}
+			out.append("\"/>");
+		}
+
+		// axes and ticks
+		out.append("<path class=\"a\" d=\"M").append(Integer.toString(borderLeft)).append(' ').append(Integer.toString(chartBottom))
+				.append('V').append(Integer.toString(layout.getBorderTop()));
+		for (int i = 0; i < ys; i++) {
+			out.append('M').append(Integer.toString(borderLeft - 5)).append(' ').append(Integer.toString(layout.getYTickPosition(i)))
+					.append("h10");
+		}
+		out.append('M').append(Integer.toString(borderLeft)).append(' ').append(Integer.toString(chartBottom)).append('H')
+				.append(Integer.toString(right));
+		for (int i = 0; i < xs; i += tickStep) {
+			out.append('M');
+			number(out, layout.getXPosition(i));
+			out.append(' ').append(Integer.toString(chartBottom + 7)).append("v-7");
+		}
+		out.append("\"/>");
+
+		// numbers on the y-axis
+		for (int i = 0; i < ys; i++) {
+			writeText(out, ytickMarks.get(i), borderLeft - fm.getHeight(), layout.getYTickPosition(i), "r", null);
+		}
+
+		// text on the x-axis
+		for (int i = 0; i < xs; i += tickStep) {
+			double xpos = layout.getXPosition(i);
+			/*
+			 * rotate text by 45 degree if there's not enough space to show it horizontal
+			 */
+			if (layout.isRotateXTickMarks()) {
+				if (i % xMarkerTextDistance == 0) {
+					writeText(out, xtickMarks.get(i), xpos, chartBottom + fm.getHeight(), "r", Boolean.TRUE);
+				}
+			} else {
+				writeText(out, xtickMarks.get(i), xpos, chartBottom + fm.getHeight(), "c", null);
+			}
+		}
+	}
+
+	/************************************************************************************
+	 * start a group of points of one row
+	 ************************************************************************************/
+	private void writePointsStart(Appendable out, int d) throws IOException {
+		if (pointStyle == PointStyle.CIRCLE) {
+			out.append("<g class=\"p").append(Integer.toString(d)).append("\">");
+		} else {
+			out.append("<path class=\"p").append(Integer.toString(d)).append("\" d=\"");
+		}
+	}
+
+	/************************************************************************************
+	 * write one point of the group started with {@link #writePointsStart(Appendable, int)}
+	 * 
+	 * @param xpos the x-position
+	 * @param ypos the y-position
+	 ************************************************************************************/
+	private void writePoint(Appendable out, double xpos, double ypos) throws IOException {
+		int quarter = fm.getHeight() / 4;
+		int half = fm.getHeight() / 2;
+		if (pointStyle == PointStyle.CIRCLE) {
+			out.append("<circle cx=\"");
+			number(out, xpos - quarter + half / 2.0);
+			out.append("\" cy=\"");
+			number(out, ypos - quarter + half / 2.0);
+			out.append("\" r=\"");
+			number(out, half / 2.0);
+			out.append("\"/>");
+		} else {
+			out.append('M');
+			number(out, xpos - quarter);
+			out.append(' ');
+			number(out, ypos - quarter);
+			out.append('h').append(Integer.toString(half)).append('v').append(Integer.toString(half)).append('h')
+					.append(Integer.toString(-half)).append('z');
+		}
+	}
+
+	/************************************************************************************
+	 * end a group of points
+	 ************************************************************************************/
+	private void writePointsEnd(Appendable out) throws IOException {
+		out.append(pointStyle == PointStyle.CIRCLE ? "</g>" : "\"/>");
+	}
+
+	/************************************************************************************
+	 * write a text with its middle at the given y-position
+	 * 
+	 * @param out the target
+	 * @param str the string to show
+	 * @param xpos the x-position
+	 * @param ypos the y-position
+	 * @param anchor the style class for centered (c) or right aligned (r) text, null
+	 *        for left aligned text
+	 * @param rotate {@link Boolean#TRUE} to rotate the text by -45 degree around the
+	 *        given position, null otherwise
+	 ************************************************************************************/
+	private void writeText(Appendable out, String str, double xpos, double ypos, String anchor, Boolean rotate) throws IOException {
+		out.append("<text");
+		if (anchor != null) {
+			out.append(" class=\"").append(anchor).append('"');
+		}
+		if (rotate != null) {
+			out.append(" transform=\"rotate(-45 ");
+			number(out, xpos);
+			out.append(' ');
+			number(out, ypos);
+			out.append(")\"");
+		}
+		out.append(" x=\"");
+		number(out, xpos);
+		out.append("\" y=\"").append(Integer.toString((int) (ypos + 0.5 * fm.getAscent() - 1))).append("\">");
+		escape(out, str);
+		out.append("</text>");
+	}
+
+	/************************************************************************************
+	 * write the properties of a stroke as style
+	 ************************************************************************************/
+	private static void writeStroke(Appendable out, BasicStroke stroke) throws IOException {
+		// a stroke of width 0 is the thinnest line in Java2D, but invisible in SVG
+		out.append("stroke-width:");
+		number(out, Math.max(1.0f, stroke.getLineWidth()));
+		float[] dash = stroke.getDashArray();
+		if (dash != null) {
+			out.append(";stroke-dasharray:");
+			for (int i = 0; i < dash.length; i++) {
+				if (i > 0) {
+					out.append(',');
+				}
+				number(out, dash[i]);
+			}
+			if (stroke.getDashPhase() != 0) {
+				out.append(";stroke-dashoffset:");
+				number(out, stroke.getDashPhase());
+			}
+		}
+		if (stroke.getEndCap() == BasicStroke.CAP_ROUND) {
+			out.append(";stroke-linecap:round");
+		} else if (stroke.getEndCap() == BasicStroke.CAP_SQUARE) {
+			out.append(";stroke-linecap:square");
+		}
+		if (stroke.getLineJoin() == BasicStroke.JOIN_ROUND) {
+			out.append(";stroke-linejoin:round");
+		} else if (stroke.getLineJoin() == BasicStroke.JOIN_BEVEL) {
+			out.append(";stroke-linejoin:bevel");
+		}
+	}
+
+	/************************************************************************************
+	 * append a number rounded to one decimal place without trailing zeros
+	 ************************************************************************************/
+	private static void number(Appendable out, double value) throws IOException {
+		long tenths = Math.round(value * 10);
+		if (tenths < 0) {
+			out.append('-');
+			tenths = -tenths;
+		}
+		out.append(Long.toString(tenths / 10));
+		if (tenths % 10 != 0) {
+			out.append('.').append((char) ('0' + tenths % 10));
+		}
+	}
+
+	/************************************************************************************
+	 * append a text with the special characters of XML escaped
+	 ************************************************************************************/
+	private static void escape(Appendable out, String str) throws IOException {
+		if (str == null) {
+			return;
+		}
+		int start = 0;
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			String replacement;
+			switch (c) {
+			case '<':
+				replacement = "&lt;";
+				break;
+			case '>':
+				replacement = "&gt;";
+				break;
+			case '&':
+				replacement = "&amp;";
+				break;
+			case '"':
+				replacement = "&quot;";
+				break;
+			default:
+				// control characters are not allowed in XML
+				replacement = c < ' ' && c != '\t' && c != '\n' && c != '\r' ? "" : null;
+			}
+			if (replacement != null) {
+				out.append(str, start, i).append(replacement);
+				start = i + 1;
+			}
+		}
+		out.append(str, start, str.length());
+	}
+
+	/************************************************************************************
+	 * get a color as hexadecimal RGB value like #c80000
+	 ************************************************************************************/
+	private static String toHex(Color color) {
+		String hex = Integer.toHexString(color.getRGB() & 0xFFFFFF | 0x1000000);
+		return "#" + hex.substring(1);
+	}
+
+	/************************************************************************************
+	 * get the generic CSS font family of a font as fallback for viewers without the
+	 * font, the logical Java fonts are no CSS fonts at all
+	 ************************************************************************************/
+	private static String getGenericFamily(Font font) {
+		String family = font.getFamily();
+		if (Font.SERIF.equalsIgnoreCase(family)) {
+			return "serif";
+		}
+		if (Font.MONOSPACED.equalsIgnoreCase(family) || Font.DIALOG_INPUT.equalsIgnoreCase(family)) {
+			return "monospace";
+		}
+		return "sans-serif";
+	}
+}
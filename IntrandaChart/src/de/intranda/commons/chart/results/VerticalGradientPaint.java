@@ -0,0 +1,224 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Paint;
+import java.awt.PaintContext;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/*************************************************************************************
+ * A vertical color gradient like {@link GradientPaint} from one y-position to another
+ * 
+ * The colors are exactly the ones of a {@link GradientPaint}. That paint adds up the 
+ * step from row to row starting at each requested piece, so its rounding depends on 
+ * where Java2D starts the pieces: every 32 rows from the top of the filled shape. 
+ * A shape cut by a clip, like a bar painted in tiles or bands, gets other pieces. 
+ * This paint always sums up from the pieces of the whole shape, so a clipped bar 
+ * gets the same colors as the bar painted at once. With antialiasing the top of the 
+ * whole shape is computed like the renderer does, with 8 sub-pixel rows per pixel; 
+ * without antialiasing clipped shapes start their pieces at the clip.
+ * 
+ * The table of colors can be computed once and shared, see {@link ChartTheme}. A 
+ * paint keeps the raster of its last painting for the next one, so one paint 
+ * must only be used by one thread at a time.
+ * 
+ * @version 18.10.2026
+ * 
+ * @see ChartDraw
+ *************************************************************************************/
+final class VerticalGradientPaint implements Paint {
+	private static final ColorModel RGB_MODEL = new DirectColorModel(24, 0xFF0000, 0xFF00, 0xFF);
+	// rows of the pieces Java2D asks a paint for
+	private static final int PIECE_ROWS = 32;
+	// sub-pixel rows per pixel of the antialiasing renderer
+	private static final int SUBPIXEL_ROWS = 8;
+
+	private final float y1;
+	private final Color color1;
+	private final float y2;
+	private final Color color2;
+	private final int[] colors;
+	// raster of the last disposed context, reused by the next one
+	private WritableRaster spare = null;
+
+	/************************************************************************************
+	 * constructor for a gradient from color1 at y1 to color2 at y2
+	 * 
+	 * @param y1 the y-position of the first color
+	 * @param color1 the first color
+	 * @param y2 the y-position of the second color
+	 * @param color2 the second color
+	 ************************************************************************************/
+	VerticalGradientPaint(float y1, Color color1, float y2, Color color2) {
+		this(y1, color1, y2, color2, createColors(color1, color2));
+	}
+
+	/************************************************************************************
+	 * constructor for a gradient from color1 at y1 to color2 at y2 with the table of 
+	 * colors computed before
+	 * 
+	 * @param y1 the y-position of the first color
+	 * @param color1 the first color
+	 * @param y2 the y-position of the second color
+	 * @param color2 the second color
+	 * @param colors the table from {@link #createColors(Color, Color)}, it is not copied
+	 ************************************************************************************/
+	VerticalGradientPaint(float y1, Color color1, float y2, Color color2, int[] colors) {
+		this.y1 = y1;
+		this.color1 = color1;
+		this.y2 = y2;
+		this.color2 = color2;
+		this.colors = colors;
+	}
+
+	/************************************************************************************
+	 * compute the table of 257 colors from color1 to color2, the same table as in a 
+	 * {@link GradientPaint}
+	 * 
+	 * @param color1 the first color
+	 * @param color2 the second color
+	 * @return the ARGB values of the colors
+	 ************************************************************************************/
+	static int[] createColors(Color color1, Color color2) {
+		int[] colors = new int[257];
+		int rgb1 = color1.getRGB();
+		int rgb2 = color2.getRGB();
+		int a1 = (rgb1 >> 24) & 0xFF;
+		int r1 = (rgb1 >> 16) & 0xFF;
+		int g1 = (rgb1 >> 8) & 0xFF;
+		int b1 = rgb1 & 0xFF;
+		int da = ((rgb2 >> 24) & 0xFF) - a1;
+		int dr = ((rgb2 >> 16) & 0xFF) - r1;
+		int dg = ((rgb2 >> 8) & 0xFF) - g1;
+		int db = (rgb2 & 0xFF) - b1;
+		for (int i = 0; i <= 256; i++) {
+			float rel = i / 256.0f;
+			colors[i] = (((int) (a1 + da * rel)) << 24) | (((int) (r1 + dr * rel)) << 16) | (((int) (g1 + dg * rel)) << 8)
+					| ((int) (b1 + db * rel));
+		}
+		return colors;
+	}
+
+	public int getTransparency() {
+		return color1.getAlpha() == 255 && color2.getAlpha() == 255 ? Transparency.OPAQUE : Transparency.TRANSLUCENT;
+	}
+
+	public PaintContext createContext(ColorModel cm, Rectangle deviceBounds, Rectangle2D userBounds, AffineTransform xform,
+			RenderingHints hints) {
+		if (xform.getShearX() != 0 || xform.getShearY() != 0 || xform.getScaleY() == 0 || y1 == y2) {
+			/* not vertical in device space */
+			return new GradientPaint(0, y1, color1, 0, y2, color2).createContext(cm, deviceBounds, userBounds, xform, hints);
+		}
+		return new Context(deviceBounds, userBounds, xform, hints);
+	}
+
+	/************************************************************************************
+	 * the context filling the rasters from the table of colors
+	 ************************************************************************************/
+	private final class Context implements PaintContext {
+		private final double deviceY1;
+		private final double dy;
+		// first row of the shape, the pieces start every 32 rows from here
+		private final int top;
+		private final ColorModel model;
+		private WritableRaster saved;
+
+		private Context(Rectangle deviceBounds, Rectangle2D userBounds, AffineTransform xform, RenderingHints hints) {
+			/* the same computation as in the context of a GradientPaint from (0, y1) to (0, y2) */
+			Point2D yvec = new Point2D.Double(0, 1);
+			try {
+				xform.createInverse().deltaTransform(yvec, yvec);
+			} catch (NoninvertibleTransformException e) {
+				yvec.setLocation(0, 0);
+			}
+			double udx = 0;
+			double udy = (double) y2 - (double) y1;
+			dy = (yvec.getX() * udx + yvec.getY() * udy) / (udx * udx + udy * udy);
+			deviceY1 = xform.transform(new Point2D.Float(0, y1), null).getY();
+
+			int shapeTop = deviceBounds.y;
+			if (hints != null && RenderingHints.VALUE_ANTIALIAS_ON.equals(hints.get(RenderingHints.KEY_ANTIALIASING))) {
+				/* the device bounds start at the clip if the shape was cut above */
+				double userTop = xform.getScaleY() > 0 ? userBounds.getMinY() : userBounds.getMaxY();
+				float deviceTop = (float) (xform.getScaleY() * userTop + xform.getTranslateY());
+				int wholeTop = (int) Math.floor(Math.ceil(deviceTop * SUBPIXEL_ROWS - 0.5f) / SUBPIXEL_ROWS);
+				shapeTop = Math.min(shapeTop, wholeTop);
+			}
+			top = shapeTop;
+			boolean opaque = getTransparency() == Transparency.OPAQUE;
+			model = opaque ? RGB_MODEL : ColorModel.getRGBdefault();
+			if (spare != null && spare.getNumBands() == model.getNumComponents()) {
+				saved = spare;
+			}
+			spare = null;
+		}
+
+		public ColorModel getColorModel() {
+			return model;
+		}
+
+		public Raster getRaster(int x, int y, int w, int h) {
+			if (saved == null || saved.getWidth() < w || saved.getHeight() < h) {
+				saved = model.createCompatibleWritableRaster(w, h);
+			}
+			int[] pixels = ((DataBufferInt) saved.getDataBuffer()).getData();
+			int stride = ((SinglePixelPackedSampleModel) saved.getSampleModel()).getScanlineStride();
+			/* sum up from the start of the piece the row is in when the whole shape is painted */
+			int start = y >= top ? y - (y - top) % PIECE_ROWS : y;
+			double rel = (start - deviceY1) * dy;
+			for (int row = start; row < y; row++) {
+				rel += dy;
+			}
+			for (int row = 0; row < h; row++, rel += dy) {
+				if (row > 0 && y + row > top && (y + row - top) % PIECE_ROWS == 0) {
+					rel = (y + row - deviceY1) * dy;
+				}
+				int rgb = rel <= 0 ? colors[0] : rel < 1 ? colors[(int) (rel * 256)] : colors[256];
+				int offset = row * stride;
+				for (int i = 0; i < w; i++) {
+					pixels[offset + i] = rgb;
+				}
+			}
+			return saved;
+		}
+
+		public void dispose() {
+			if (saved != null) {
+				spare = saved;
+				saved = null;
+			}
+		}
+	}
+}
@@ -23,19 +23,21 @@ package de.intranda.commons.chart.test;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.imageio.ImageIO;
-
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartUtilities;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.plot.PiePlot3D;
 import org.jfree.data.general.DefaultPieDataset;
 
+import de.intranda.commons.chart.renderer.PngEncoder;
 import de.intranda.commons.chart.renderer.StringRenderer;
 import de.intranda.commons.chart.results.ChartDraw;
 import de.intranda.commons.chart.results.DataRow;
@@ -120,8 +122,12 @@ public class MainCreatePNG {
 	 ************************************************************************************/
 	private static void createChart(DataTable dataTable, String fileName, int width, int height) throws IOException {
 		BufferedImage image = generateImage(dataTable, width, height);
-		File outputfile = new File(fileName);
-		ImageIO.write(image, "png", outputfile);
+		OutputStream outputfile = new BufferedOutputStream(new FileOutputStream(fileName));
+		try {
+			new PngEncoder().encode(image, outputfile);
+		} finally {
+			outputfile.close();
+		}
 
 		// FileOutputStream fo = new FileOutputStream("imageAsStream.png");
 		// ImageIO.write(image, "png", fo);
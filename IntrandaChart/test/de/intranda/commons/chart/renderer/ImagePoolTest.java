@@ -0,0 +1,94 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.renderer;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.BasicStroke;
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import de.intranda.commons.chart.results.ChartTheme;
+import de.intranda.commons.chart.results.DataRow;
+import de.intranda.commons.chart.results.DataTable;
+
+/*************************************************************************************
+ * Tests for {@link ImagePool}
+ * 
+ * @version 18.10.2026
+ *************************************************************************************/
+public class ImagePoolTest {
+
+	@Test
+	public void releasedImageIsReused() {
+		ImagePool pool = new ImagePool(1 << 20);
+		BufferedImage image = pool.checkout(20, 10);
+		pool.release(image);
+
+		assertSame(image, pool.checkout(20, 10));
+		assertNotSame(image, pool.checkout(20, 10));
+	}
+
+	@Test
+	public void indexedImagesKeepTheirColorModel() {
+		ChartTheme first = ChartTheme.DEFAULT;
+		ChartTheme second = new ChartTheme(first.getColors(), new Font("SansSerif", Font.BOLD, 14), new BasicStroke(1), new BasicStroke(1),
+				new BasicStroke(1));
+		ImagePool pool = new ImagePool(1 << 20);
+		pool.release(pool.checkout(20, 10, first.getIndexColorModel()));
+
+		BufferedImage image = pool.checkout(20, 10, second.getIndexColorModel());
+		assertSame(second.getIndexColorModel(), image.getColorModel());
+		pool.release(image);
+		assertSame(first.getIndexColorModel(), pool.checkout(20, 10, first.getIndexColorModel()).getColorModel());
+	}
+
+	@Test
+	public void themesWithEqualColorsShareOnePool() throws IOException {
+		DataTable table = new DataTable("table");
+		DataRow row = new DataRow("row");
+		row.addValue("a", 1);
+		row.addValue("b", 2);
+		table.addDataRow(row);
+		ImagePool pool = new ImagePool(1 << 24);
+		ChartTheme[] themes = { ChartTheme.DEFAULT,
+				new ChartTheme(ChartTheme.DEFAULT.getColors(), new Font("Serif", Font.PLAIN, 9), new BasicStroke(2), new BasicStroke(1),
+						new BasicStroke(1)) };
+		for (int i = 0; i < 4; i++) {
+			ChartRenderer renderer = new ChartRenderer();
+			renderer.setDataTable(table);
+			renderer.setSize(200, 100);
+			renderer.setTheme(themes[i % 2]);
+			renderer.setIndexedColors(true);
+			renderer.setImagePool(pool);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			renderer.renderTo(out);
+		}
+		/* each theme got its own indexed image back from the pool */
+		assertTrue(pool.getReuseCount() >= 4);
+	}
+}
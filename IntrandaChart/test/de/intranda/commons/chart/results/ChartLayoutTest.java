@@ -0,0 +1,91 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+import de.intranda.commons.chart.results.ChartDraw.Aggregation;
+import de.intranda.commons.chart.results.ChartDraw.ChartType;
+
+/*************************************************************************************
+ * Tests for {@link ChartLayout}
+ * 
+ * @version 18.10.2026
+ *************************************************************************************/
+public class ChartLayoutTest {
+
+	@Test
+	public void meanLineOfBinnedBarsIsTheMeanOfAllColumns() {
+		DataTable table = new DataTable("binned");
+		DataRow row = new DataRow("peaks");
+		DataRow hidden = new DataRow("hidden");
+		for (int i = 0; i < 2000; i++) {
+			row.addValue("c" + i, i % 10 == 0 ? 100 : 1);
+			hidden.addValue("c" + i, 1);
+		}
+		row.setShowMeanValue(true);
+		table.addDataRow(row);
+		table.addDataRow(hidden);
+
+		for (Aggregation aggregation : Aggregation.values()) {
+			ChartLayout layout = new ChartLayout(table, 300, 200, ChartType.BAR, aggregation, getFontMetrics());
+			assertTrue(layout.getDataTable() != table);
+			assertEquals(10.9, layout.getMeanValue(0), 1e-9);
+			assertTrue(Double.isNaN(layout.getMeanValue(1)));
+			assertTrue(layout.getYMaxValue() > layout.getMeanValue(0));
+		}
+	}
+
+	@Test
+	public void leftBorderFitsTheWidestLabel() {
+		FontMetrics fm = getFontMetrics();
+		DataTable table = new DataTable("labels");
+		DataRow row = new DataRow("row");
+		for (int i = 0; i < 2000; i++) {
+			row.addValue(i == 1 ? "WWWWWWWW" : "c" + i, i);
+		}
+		table.addDataRow(row);
+
+		ChartLayout layout = new ChartLayout(table, 300, 200, ChartType.LINE, null, fm);
+		assertEquals(fm.stringWidth(row.getShortLabel(1)), layout.getXMaxTickMarkWidth());
+
+		/* a wider label added later is measured as well */
+		row.addValue("WWWWWWWWWW", 1);
+		layout = new ChartLayout(table, 300, 200, ChartType.LINE, null, fm);
+		assertEquals(fm.stringWidth(row.getShortLabel(2000)), layout.getXMaxTickMarkWidth());
+	}
+
+	private static FontMetrics getFontMetrics() {
+		Graphics2D g2d = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).createGraphics();
+		try {
+			return g2d.getFontMetrics();
+		} finally {
+			g2d.dispose();
+		}
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/*************************************************************************************
+ * Tests for {@link DataTableCodec}, each table is written and read back and has to 
+ * be the same as before
+ * 
+ * @version 18.10.2026
+ *************************************************************************************/
+public class DataTableCodecTest {
+
+	@Test
+	public void roundTripKeepsValuesAndProperties() throws IOException {
+		DataTable table = new DataTable("table");
+		table.setSubname("sub");
+		table.setUnitLabel("unit");
+		table.setShowableInPieChart(false);
+		DataRow counts = new DataRow("counts");
+		DataRow fractions = new DataRow("fractions");
+		for (int i = 0; i < 100; i++) {
+			counts.addValue("label " + i, i * i - 50);
+			fractions.addValue("label " + i, i / 3.0);
+		}
+		fractions.setShowMeanValue(true);
+		table.addDataRow(counts);
+		table.addDataRow(fractions);
+
+		assertSameTable(table, roundTrip(table));
+	}
+
+	@Test
+	public void roundTripKeepsDuplicateLabels() throws IOException {
+		DataTable table = new DataTable("table");
+		String[] names = { "a", "b", "a" };
+		for (int r = 0; r < names.length; r++) {
+			DataRow row = new DataRow(names[r]);
+			for (int i = 0; i < 5; i++) {
+				row.addValue("label " + i, r * 10 + i);
+			}
+			table.addDataRow(row);
+		}
+		/* the columns of the inverted table are the row names, "a" is there twice */
+		DataTable inverted = table.getDataTableInverted();
+		DataTable decoded = roundTrip(inverted);
+
+		assertSameTable(inverted, decoded);
+		assertEquals(3, decoded.getDataRows().get(0).getNumberValues().intValue());
+		assertEquals(0.0, decoded.getDataRows().get(0).getDouble("a"), 0);
+	}
+
+	@Test
+	public void bufferIsPositionedAfterTable() throws IOException {
+		DataTable table = new DataTable("table");
+		DataRow row = new DataRow("row");
+		row.addValue("x", 1.5);
+		table.addDataRow(row);
+		DataTableCodec codec = new DataTableCodec();
+		ByteBuffer buffer = ByteBuffer.allocate(1024);
+		codec.encode(table, buffer);
+		buffer.putInt(42);
+		buffer.flip();
+
+		assertSameTable(table, codec.decode(buffer));
+		assertEquals(42, buffer.getInt());
+	}
+
+	@Test
+	public void tablesAreReadOneAfterTheOtherFromOneStream() throws IOException {
+		DataTable small = new DataTable("small");
+		DataRow row = new DataRow("row");
+		row.addValue("x", 1.5);
+		small.addDataRow(row);
+		/* a table larger than one chunk */
+		DataTable large = new DataTable("large");
+		for (int r = 0; r < 3; r++) {
+			DataRow values = new DataRow("values " + r);
+			for (int i = 0; i < 5000; i++) {
+				values.addValue("label " + i, i / 7.0 + r);
+			}
+			large.addDataRow(values);
+		}
+		DataTableCodec codec = new DataTableCodec();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		codec.encode(small, out);
+		codec.encode(large, out);
+		codec.encode(small, out);
+		out.write(42);
+		ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+
+		assertSameTable(small, codec.decode(in));
+		assertSameTable(large, codec.decode(in));
+		assertSameTable(small, codec.decode(in));
+		assertEquals(42, in.read());
+	}
+
+	@Test(expected = EOFException.class)
+	public void truncatedTableIsRejected() throws IOException {
+		DataTable table = new DataTable("table");
+		DataRow row = new DataRow("row");
+		row.addValue("x", 1.5);
+		table.addDataRow(row);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new DataTableCodec().encode(table, out);
+		byte[] bytes = out.toByteArray();
+
+		/* without the chunk of length 0 at the end */
+		new DataTableCodec().decode(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+	}
+
+	private static DataTable roundTrip(DataTable table) throws IOException {
+		DataTableCodec codec = new DataTableCodec();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		codec.encode(table, out);
+		return codec.decode(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	static void assertSameTable(DataTable expected, DataTable actual) {
+		assertEquals(expected.getName(), actual.getName());
+		assertEquals(expected.getSubname(), actual.getSubname());
+		assertEquals(expected.getUnitLabel(), actual.getUnitLabel());
+		assertEquals(expected.isShowableInTable(), actual.isShowableInTable());
+		assertEquals(expected.isShowableInChart(), actual.isShowableInChart());
+		assertEquals(expected.isShowableInPieChart(), actual.isShowableInPieChart());
+		assertEquals(expected.getDataRows().size(), actual.getDataRows().size());
+		for (int r = 0; r < expected.getDataRows().size(); r++) {
+			DataRow expectedRow = expected.getDataRows().get(r);
+			DataRow actualRow = actual.getDataRows().get(r);
+			assertEquals(expectedRow.getName(), actualRow.getName());
+			assertEquals(expectedRow.isShowMeanValue(), actualRow.isShowMeanValue());
+			assertEquals(expectedRow.getNumberValues(), actualRow.getNumberValues());
+			for (int i = 0; i < expectedRow.getNumberValues(); i++) {
+				assertEquals(expectedRow.getLabel(i), actualRow.getLabel(i));
+				assertEquals(expectedRow.getDouble(i), actualRow.getDouble(i), 0);
+			}
+		}
+	}
+}
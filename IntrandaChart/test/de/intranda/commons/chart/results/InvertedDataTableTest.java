@@ -0,0 +1,63 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/*************************************************************************************
+ * Tests for the view returned by {@link DataTable#getDataTableInverted()}
+ * 
+ * @version 18.10.2026
+ *************************************************************************************/
+public class InvertedDataTableTest {
+
+	@Test
+	public void invertedRowIsCopiedIntoAnotherTable() {
+		DataTable source = new DataTable("source");
+		String[] names = { "x", "y" };
+		for (int r = 0; r < names.length; r++) {
+			DataRow row = new DataRow(names[r]);
+			row.addValue("a", r + 1);
+			source.addDataRow(row);
+		}
+		DataRow inverted = source.getDataTableInverted().getDataRows().get(0);
+
+		DataTable table = new DataTable("table");
+		table.addDataRow(inverted);
+		DataRow other = new DataRow("other");
+		other.addValue("z", 3);
+		table.addDataRow(other);
+
+		assertNotSame(inverted, table.getDataRows().get(0));
+		assertEquals(Arrays.asList("x", "y", "z"), table.getDataRows().get(0).getLabels());
+		assertEquals(Arrays.asList("x", "y", "z"), table.getDataRows().get(1).getLabels());
+		assertEquals(2.0, table.getDataRows().get(0).getDouble("y"), 0);
+		assertEquals(3.0, table.getDataRows().get(1).getDouble("z"), 0);
+		assertEquals(6.0, table.getStatistics().getSum(), 0);
+		/* the source is not changed by the copy */
+		assertEquals(Arrays.asList("a"), source.getDataRows().get(0).getLabels());
+	}
+}
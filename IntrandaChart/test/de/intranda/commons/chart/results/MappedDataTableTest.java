@@ -0,0 +1,106 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/*************************************************************************************
+ * Tests for {@link MappedDataTable}
+ * 
+ * @version 18.10.2026
+ *************************************************************************************/
+public class MappedDataTableTest {
+	private File file;
+
+	@Before
+	public void createFile() throws IOException {
+		file = File.createTempFile("mapped", ".idtm");
+	}
+
+	@After
+	public void deleteFile() {
+		file.delete();
+	}
+
+	@Test
+	public void nullLabelsAreStoredAsDash() throws IOException {
+		MappedDataTable table = MappedDataTable.create(file, "table", new String[] { "a", null, "c" }, new String[] { null, "row" });
+		try {
+			assertEquals(Arrays.asList("a", "-", "c"), table.getDataRows().get(0).getLabels());
+			assertEquals("-", table.getDataRows().get(0).getName());
+			assertEquals(1, table.getColumnIndex("-"));
+			assertEquals(1, table.getColumnIndex(null));
+
+			table.getDataRows().get(1).addValue(null, 7);
+			assertEquals(7.0, table.getValue(1, 1), 0);
+			assertEquals(7.0, table.getDataRows().get(1).getDouble("-"), 0);
+		} finally {
+			table.close();
+		}
+	}
+
+	@Test
+	public void mappedRowIsCopiedIntoAnotherTable() throws IOException {
+		MappedDataTable mapped = MappedDataTable.create(file, "table", new String[] { "a", "b" }, new String[] { "row" });
+		try {
+			mapped.setValue(0, 1, 4);
+			DataTable table = new DataTable("copy");
+			table.addDataRow(mapped.getDataRows().get(0));
+			DataRow other = new DataRow("other");
+			other.addValue("c", 1);
+			table.addDataRow(other);
+
+			assertEquals(Arrays.asList("a", "b", "c"), table.getDataRows().get(0).getLabels());
+			assertEquals(4.0, table.getDataRows().get(0).getDouble("b"), 0);
+			assertEquals(5.0, table.getStatistics().getSum(), 0);
+			assertEquals(2, mapped.getNumberColumns());
+		} finally {
+			mapped.close();
+		}
+	}
+
+	@Test
+	public void valuesAndLabelsSurviveReopening() throws IOException {
+		MappedDataTable table = MappedDataTable.create(file, "table", new String[] { "x", "y" }, new String[] { "first", "second" });
+		table.getDataRows().get(0).addValue("y", 2.5);
+		table.setValue(1, 0, -4);
+		table.close();
+
+		table = MappedDataTable.open(file, false);
+		try {
+			assertEquals("table", table.getName());
+			assertEquals(2.5, table.getDataRows().get(0).getDouble("y"), 0);
+			assertEquals(-4.0, table.getDataRows().get(1).getDouble(0), 0);
+			assertEquals(-4.0, table.getMinValue(), 0);
+			assertEquals(2.5, table.getMaxValue(), 0);
+		} finally {
+			table.close();
+		}
+	}
+}
@@ -0,0 +1,337 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.results;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.intranda.commons.chart.renderer.ChartRenderer;
+import de.intranda.commons.chart.renderer.HtmlTableRenderer;
+import de.intranda.commons.chart.renderer.IRenderer;
+import de.intranda.commons.chart.renderer.RenderCache;
+import de.intranda.commons.chart.renderer.StringRenderer;
+
+/*************************************************************************************
+ * Tests for {@link SlidingWindowDataRow}, the rows and tables are compared to a 
+ * simple model of the window after each step
+ * 
+ * @version 18.10.2026
+ *************************************************************************************/
+public class SlidingWindowDataRowTest {
+
+	@Test
+	public void singleRowKeepsLastValues() {
+		SlidingWindowDataRow row = new SlidingWindowDataRow("row", 3);
+		for (int i = 0; i < 5; i++) {
+			row.addValue("t" + i, i + 1);
+		}
+		row.addValue("t3", 10);
+
+		assertEquals(Arrays.asList("t2", "t3", "t4"), row.getLabels());
+		assertEquals(10.0, row.getDouble(1), 0);
+		assertEquals(0.0, row.getDouble("t1"), 0);
+		assertEquals(10.0, row.getMaxValue(), 0);
+		assertEquals(3.0, row.getMinValue(), 0);
+		assertEquals(6.0, row.getMeanValue(), 1e-9);
+	}
+
+	@Test
+	public void rowsOfOneWindowMoveTogether() {
+		DataTable table = new DataTable("table");
+		SlidingWindowDataRow first = new SlidingWindowDataRow("first", 3);
+		SlidingWindowDataRow second = new SlidingWindowDataRow("second", first);
+		table.addDataRow(first);
+		table.addDataRow(second);
+		first.addValue("t0", 1);
+		first.addValue("t1", 2);
+		second.addValue("t1", 20);
+		first.addValue("t2", 3);
+		first.addValue("t3", 4);
+		/* the second row is one step behind */
+		second.addValue("t2", 30);
+		second.addValue("t3", 40);
+		second.addValue("t4", 50);
+
+		assertEquals(Arrays.asList("t2", "t3", "t4"), first.getLabels());
+		assertEquals(first.getLabels(), second.getLabels());
+		assertEquals(0.0, first.getDouble("t4"), 0);
+		assertEquals(30.0, second.getDouble(0), 0);
+		assertEquals(7.0 + 120.0, table.getStatistics().getSum(), 1e-9);
+		assertEquals(50.0, table.getMaxValue(), 0);
+		assertEquals(0.0, table.getMinValue(), 0);
+		assertEquals(6, table.getNumberCells());
+	}
+
+	@Test
+	public void outOfPhaseRowsMatchModel() throws IOException {
+		Random random = new Random(24);
+		for (int capacity : new int[] { 1, 2, 5, 17 }) {
+			DataTable table = new DataTable("table");
+			List<SlidingWindowDataRow> rows = new ArrayList<SlidingWindowDataRow>();
+			rows.add(new SlidingWindowDataRow("row 0", capacity));
+			for (int r = 1; r < 3; r++) {
+				rows.add(new SlidingWindowDataRow("row " + r, rows.get(0)));
+			}
+			for (SlidingWindowDataRow row : rows) {
+				table.addDataRow(row);
+			}
+			List<String> window = new ArrayList<String>();
+			List<Map<String, Double>> values = new ArrayList<Map<String, Double>>();
+			for (int r = 0; r < rows.size(); r++) {
+				values.add(new HashMap<String, Double>());
+			}
+			/* each row adds its own labels, some ahead of the others and some behind */
+			int[] nextLabel = new int[rows.size()];
+			for (int step = 0; step < 3000; step++) {
+				int r = random.nextInt(rows.size());
+				String label;
+				if (random.nextInt(4) == 0 && nextLabel[r] > 0) {
+					label = "t" + (nextLabel[r] - 1 - random.nextInt(Math.min(nextLabel[r], capacity + 2)));
+				} else {
+					label = "t" + nextLabel[r]++;
+				}
+				double value = random.nextInt(200) - 50;
+				rows.get(r).addValue(label, value);
+
+				if (!window.contains(label)) {
+					window.add(label);
+					if (window.size() > capacity) {
+						String dropped = window.remove(0);
+						for (Map<String, Double> rowValues : values) {
+							rowValues.remove(dropped);
+						}
+					}
+				}
+				values.get(r).put(label, value);
+				assertMatchesModel(table, window, values);
+			}
+			assertMatchesDecoded(table);
+			assertMatchesInverted(table);
+		}
+	}
+
+	@Test
+	public void mixedRowsShareTheColumnsOfTheTable() throws IOException {
+		DataTable sliding = new DataTable("sliding");
+		SlidingWindowDataRow window = new SlidingWindowDataRow("window", 4);
+		sliding.addDataRow(window);
+		for (int i = 0; i < 6; i++) {
+			window.addValue("t" + i, i);
+		}
+		DataRow plain = new DataRow("plain");
+		plain.addValue("t4", 100);
+		plain.addValue("t5", 5);
+		plain.addValue("t6", 6);
+		sliding.addDataRow(plain);
+		/* a row of a window of its own is copied into the window of the table */
+		SlidingWindowDataRow other = new SlidingWindowDataRow("other", 2);
+		other.addValue("t6", 60);
+		sliding.addDataRow(other);
+
+		assertEquals(3, sliding.getDataRows().size());
+		for (DataRow row : sliding.getDataRows()) {
+			assertTrue(row instanceof SlidingWindowDataRow);
+			assertEquals(Arrays.asList("t3", "t4", "t5", "t6"), row.getLabels());
+		}
+		assertEquals(0.0, sliding.getDataRows().get(0).getDouble("t6"), 0);
+		assertEquals(5.0, sliding.getDataRows().get(1).getDouble("t5"), 0);
+		assertEquals(60.0, sliding.getDataRows().get(2).getDouble(3), 0);
+		assertEquals(12, sliding.getNumberCells());
+		assertMatchesDecoded(sliding);
+		assertMatchesInverted(sliding);
+
+		/* a table with fixed columns copies a sliding window row like any other row */
+		DataTable fixed = new DataTable("fixed");
+		DataRow first = new DataRow("first");
+		first.addValue("a", 1);
+		fixed.addDataRow(first);
+		fixed.addDataRow(window);
+		assertEquals(Arrays.asList("a", "t3", "t4", "t5", "t6"), fixed.getDataRows().get(1).getLabels());
+		assertEquals(Arrays.asList("a", "t3", "t4", "t5", "t6"), fixed.getDataRows().get(0).getLabels());
+		assertFalse(fixed.getDataRows().get(1) instanceof SlidingWindowDataRow);
+		assertMatchesDecoded(fixed);
+		assertMatchesInverted(fixed);
+	}
+
+	@Test
+	public void renderersShowTheWindowOfAllRows() throws IOException {
+		DataTable table = new DataTable("table");
+		SlidingWindowDataRow first = new SlidingWindowDataRow("first", 500);
+		SlidingWindowDataRow second = new SlidingWindowDataRow("second", first);
+		table.addDataRow(first);
+		table.addDataRow(second);
+		for (int i = 0; i < 700; i++) {
+			first.addValue("t" + i, i % 37);
+			second.addValue("t" + (i + 3), i % 11);
+		}
+
+		assertEquals(table.getDataRows().get(1).getNumberValues().intValue() + 1, countLines(render(new StringRenderer(), table
+				.getDataTableInverted())));
+		assertTrue(render(new HtmlTableRenderer(), table).contains("t702"));
+
+		/* binned bars and a render cache, which has to see the change of the second row */
+		RenderCache cache = new RenderCache(1 << 20);
+		ChartRenderer renderer = new ChartRenderer();
+		renderer.setDataTable(table);
+		renderer.setSize(300, 200);
+		renderer.setRenderCache(cache);
+		ByteArrayOutputStream before = new ByteArrayOutputStream();
+		renderer.renderTo(before);
+		second.addValue("t300", 1000);
+		ByteArrayOutputStream after = new ByteArrayOutputStream();
+		renderer.renderTo(after);
+		assertEquals(2, cache.getMissCount());
+		assertFalse(Arrays.equals(before.toByteArray(), after.toByteArray()));
+	}
+
+	private static void assertMatchesModel(DataTable table, List<String> window, List<Map<String, Double>> values) {
+		double tableSum = 0;
+		double tableMin = Double.POSITIVE_INFINITY;
+		double tableMax = Double.NEGATIVE_INFINITY;
+		for (int r = 0; r < values.size(); r++) {
+			DataRow row = table.getDataRows().get(r);
+			assertEquals(window, row.getLabels());
+			assertEquals(window.size(), row.getNumberValues().intValue());
+			double sum = 0;
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < window.size(); i++) {
+				Double expected = values.get(r).get(window.get(i));
+				double value = expected == null ? 0 : expected.doubleValue();
+				assertEquals(window.get(i), row.getLabel(i));
+				assertEquals(value, row.getDouble(i), 0);
+				assertEquals(value, row.getDouble(window.get(i)), 0);
+				sum += value;
+				min = Math.min(min, value);
+				max = Math.max(max, value);
+			}
+			RunningStatistics statistics = row.getStatistics();
+			assertEquals(window.size(), statistics.getCount());
+			assertEquals(sum, statistics.getSum(), 1e-6);
+			assertEquals(min, statistics.getMin(), 0);
+			assertEquals(max, statistics.getMax(), 0);
+			tableSum += sum;
+			tableMin = Math.min(tableMin, min);
+			tableMax = Math.max(tableMax, max);
+		}
+		RunningStatistics statistics = table.getStatistics();
+		assertEquals((long) window.size() * values.size(), statistics.getCount());
+		assertEquals(tableSum, statistics.getSum(), 1e-6);
+		assertEquals(tableMin, statistics.getMin(), 0);
+		assertEquals(tableMax, statistics.getMax(), 0);
+	}
+
+	@Test
+	public void unusedRowsLeaveTheWindow() throws Exception {
+		DataTable table = new DataTable("table");
+		SlidingWindowDataRow live = new SlidingWindowDataRow("live", 4);
+		table.addDataRow(live);
+		SlidingLabelIndex window = (SlidingLabelIndex) live.getLabelIndex();
+		addAndRemoveRow(table, live);
+		for (int i = 0; i < 100; i++) {
+			addSnapshot(live, "t" + i);
+			live.addValue("t" + i, i);
+		}
+		assertTrue(window.getRowCount() > 1);
+
+		for (int i = 0; i < 50 && window.getRowCount() > 1; i++) {
+			System.gc();
+			live.addValue("gc" + i, i);
+		}
+		assertEquals(1, window.getRowCount());
+		assertEquals(4, live.getNumberValues().intValue());
+		assertEquals(table.getStatistics().getSum(), live.getStatistics().getSum(), 1e-9);
+
+		/* a deserialized row registers in its deserialized window */
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(table);
+		out.close();
+		DataTable copy = (DataTable) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		SlidingWindowDataRow copiedRow = (SlidingWindowDataRow) copy.getDataRows().get(0);
+		copiedRow.addValue("new", 500);
+		assertEquals(1, ((SlidingLabelIndex) copiedRow.getLabelIndex()).getRowCount());
+		assertEquals("new", copiedRow.getLabel(3));
+		assertEquals(500.0, copy.getMaxValue(), 0);
+	}
+
+	private static void addAndRemoveRow(DataTable table, SlidingWindowDataRow live) {
+		SlidingWindowDataRow removed = new SlidingWindowDataRow("removed", live);
+		table.addDataRow(removed);
+		table.removeDataRow(removed);
+	}
+
+	/* a table of a copy of another row in the window of the live row, it is not kept */
+	private static void addSnapshot(SlidingWindowDataRow live, String label) {
+		DataTable snapshot = new DataTable("snapshot");
+		snapshot.addDataRow(new SlidingWindowDataRow("window", live));
+		DataRow other = new DataRow("other");
+		other.addValue(label, 1);
+		snapshot.addDataRow(other);
+	}
+
+	private static void assertMatchesDecoded(DataTable table) throws IOException {
+		DataTableCodec codec = new DataTableCodec();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		codec.encode(table, out);
+		DataTableCodecTest.assertSameTable(table, codec.decode(new ByteArrayInputStream(out.toByteArray())));
+	}
+
+	private static void assertMatchesInverted(DataTable table) {
+		DataTable inverted = table.getDataTableInverted();
+		List<DataRow> rows = table.getDataRows();
+		assertEquals(rows.get(0).getNumberValues().intValue(), inverted.getDataRows().size());
+		for (int i = 0; i < inverted.getDataRows().size(); i++) {
+			DataRow column = inverted.getDataRows().get(i);
+			assertEquals(rows.get(0).getLabel(i), column.getName());
+			for (int r = 0; r < rows.size(); r++) {
+				assertEquals(rows.get(r).getName(), column.getLabel(r));
+				assertEquals(rows.get(r).getDouble(i), column.getDouble(r), 0);
+			}
+		}
+	}
+
+	private static String render(IRenderer renderer, DataTable table) throws IOException {
+		StringBuilder out = new StringBuilder();
+		renderer.setDataTable(table);
+		renderer.renderTo(out);
+		return out.toString();
+	}
+
+	private static int countLines(String text) {
+		return text.split("\n").length;
+	}
+}
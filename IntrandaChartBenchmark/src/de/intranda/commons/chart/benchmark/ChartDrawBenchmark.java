@@ -0,0 +1,98 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.intranda.commons.chart.results.ChartDraw;
+import de.intranda.commons.chart.results.ChartDraw.ChartType;
+import de.intranda.commons.chart.results.DataTable;
+
+/*************************************************************************************
+ * Benchmarks for laying out and painting bar and line charts with {@link ChartDraw}
+ * 
+ * Each call paints into the same image with a new {@link ChartDraw}, like the
+ * {@link de.intranda.commons.chart.renderer.ChartRenderer} does without image pool,
+ * so the time includes the layout but not the allocation of the image.
+ * 
+ * @version 18.10.2026
+ *************************************************************************************/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ChartDrawBenchmark {
+
+	@Param({ "BAR", "LINE" })
+	public ChartType chartType;
+
+	@Param({ "400x300", "1024x800", "1920x1200" })
+	public String size;
+
+	@Param({ "40", "2000" })
+	public int columns;
+
+	private int width;
+	private int height;
+	private DataTable table;
+	private BufferedImage image;
+
+	@Setup
+	public void setUp() {
+		String[] dimensions = size.split("x");
+		width = Integer.parseInt(dimensions[0]);
+		height = Integer.parseInt(dimensions[1]);
+		table = Tables.table(3, columns);
+		image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+	}
+
+	/************************************************************************************
+	 * lay out and paint the chart
+	 ************************************************************************************/
+	@Benchmark
+	public BufferedImage paint() {
+		Graphics2D g2d = image.createGraphics();
+		try {
+			g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			new ChartDraw(table, g2d, width, height, chartType, null, null).paint();
+		} finally {
+			g2d.dispose();
+		}
+		return image;
+	}
+}
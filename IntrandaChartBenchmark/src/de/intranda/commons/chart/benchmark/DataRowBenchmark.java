@@ -0,0 +1,89 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.intranda.commons.chart.results.DataRow;
+
+/*************************************************************************************
+ * Benchmarks for filling a {@link DataRow} and reading its values by label
+ * 
+ * @version 18.10.2026
+ *************************************************************************************/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DataRowBenchmark {
+
+	@Param({ "100", "10000" })
+	public int columns;
+
+	private String[] labels;
+	private double[] values;
+	private DataRow row;
+
+	@Setup
+	public void setUp() {
+		labels = Tables.labels(columns);
+		values = Tables.values(columns, 0);
+		row = Tables.row("row", labels, values);
+	}
+
+	/************************************************************************************
+	 * add one value for each column to a new row
+	 ************************************************************************************/
+	@Benchmark
+	public DataRow addValue() {
+		DataRow newRow = new DataRow("row");
+		for (int i = 0; i < labels.length; i++) {
+			newRow.addValue(labels[i], values[i]);
+		}
+		return newRow;
+	}
+
+	/************************************************************************************
+	 * read the value of each column by its label
+	 ************************************************************************************/
+	@Benchmark
+	public double getValue() {
+		double sum = 0;
+		for (String label : labels) {
+			sum += row.getValue(label);
+		}
+		return sum;
+	}
+}
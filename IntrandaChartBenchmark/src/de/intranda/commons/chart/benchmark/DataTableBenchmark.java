@@ -0,0 +1,115 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.intranda.commons.chart.results.DataRow;
+import de.intranda.commons.chart.results.DataTable;
+
+/*************************************************************************************
+ * Benchmarks for building a {@link DataTable} from rows and for reading it inverted
+ * 
+ * Rows added to a table belong to it afterwards, so the rows for
+ * {@link #addDataRow()} are created again before each call; with at least 10000
+ * cells a call takes long enough for this setup not to distort the measurement.
+ * 
+ * @version 18.10.2026
+ *************************************************************************************/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DataTableBenchmark {
+
+	@Param({ "10", "100" })
+	public int rows;
+
+	@Param({ "1000", "10000" })
+	public int columns;
+
+	private String[] labels;
+	private double[][] values;
+	private DataRow[] newRows;
+	private DataTable table;
+
+	@Setup
+	public void setUp() {
+		labels = Tables.labels(columns);
+		values = new double[rows][];
+		for (int r = 0; r < rows; r++) {
+			values[r] = Tables.values(columns, r);
+		}
+		table = Tables.table(rows, columns);
+	}
+
+	@Setup(Level.Invocation)
+	public void createRows() {
+		newRows = new DataRow[rows];
+		for (int r = 0; r < rows; r++) {
+			newRows[r] = Tables.row("row " + r, labels, values[r]);
+		}
+	}
+
+	/************************************************************************************
+	 * add all rows to a new table, all but the first one are copied into the columns
+	 * of the table
+	 ************************************************************************************/
+	@Benchmark
+	public DataTable addDataRow() {
+		DataTable newTable = new DataTable("benchmark");
+		for (DataRow row : newRows) {
+			newTable.addDataRow(row);
+		}
+		return newTable;
+	}
+
+	/************************************************************************************
+	 * invert the table and read all values of the inverted one
+	 ************************************************************************************/
+	@Benchmark
+	public double getDataTableInverted() {
+		DataTable inverted = table.getDataTableInverted();
+		double sum = 0;
+		for (DataRow row : inverted.getDataRows()) {
+			int size = row.getNumberValues();
+			for (int i = 0; i < size; i++) {
+				sum += row.getDouble(i);
+			}
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.intranda.commons.chart.renderer.PieChartRenderer;
+
+/*************************************************************************************
+ * Benchmarks for the {@link PieChartRenderer}, which paints with JFreeChart
+ * 
+ * @version 18.10.2026
+ *************************************************************************************/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PieChartRendererBenchmark {
+
+	@Param({ "5", "50" })
+	public int columns;
+
+	private PieChartRenderer renderer;
+	private ByteArrayOutputStream out;
+
+	@Setup
+	public void setUp() {
+		renderer = new PieChartRenderer();
+		renderer.setDataTable(Tables.table(1, columns));
+		renderer.setSize(800, 600);
+		out = new ByteArrayOutputStream();
+	}
+
+	/************************************************************************************
+	 * paint the pie chart
+	 ************************************************************************************/
+	@Benchmark
+	public BufferedImage getRendering() {
+		return (BufferedImage) renderer.getRendering();
+	}
+
+	/************************************************************************************
+	 * paint the pie chart and encode it as PNG
+	 ************************************************************************************/
+	@Benchmark
+	public int renderTo() throws IOException {
+		out.reset();
+		renderer.renderTo(out);
+		return out.size();
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.intranda.commons.chart.renderer.ChartRenderer;
+import de.intranda.commons.chart.renderer.PngEncoder;
+import de.intranda.commons.chart.results.ChartDraw.ChartType;
+
+/*************************************************************************************
+ * Benchmarks for encoding a painted chart as PNG with the {@link PngEncoder}, the
+ * ImageIO writer it replaces is measured as baseline
+ * 
+ * @version 18.10.2026
+ *************************************************************************************/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PngEncoderBenchmark {
+
+	@Param({ "BAR", "LINE" })
+	public ChartType chartType;
+
+	@Param({ "1024x800", "1920x1200" })
+	public String size;
+
+	@Param({ "UP", "ADAPTIVE" })
+	public PngEncoder.Filter filter;
+
+	@Param({ "false", "true" })
+	public boolean indexedColors;
+
+	private BufferedImage image;
+	private PngEncoder encoder;
+	private ByteArrayOutputStream out;
+
+	@Setup
+	public void setUp() {
+		String[] dimensions = size.split("x");
+		ChartRenderer renderer = new ChartRenderer();
+		renderer.setDataTable(Tables.table(3, 200));
+		renderer.setSize(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+		renderer.setChartType(chartType);
+		renderer.setIndexedColors(indexedColors);
+		image = (BufferedImage) renderer.getRendering();
+		encoder = new PngEncoder();
+		encoder.setFilter(filter);
+		out = new ByteArrayOutputStream();
+	}
+
+	/************************************************************************************
+	 * encode the chart with the {@link PngEncoder}
+	 ************************************************************************************/
+	@Benchmark
+	public int encode() throws IOException {
+		out.reset();
+		encoder.encode(image, out);
+		return out.size();
+	}
+
+	/************************************************************************************
+	 * encode the chart with the ImageIO writer, independent of the filter
+	 ************************************************************************************/
+	@Benchmark
+	public int imageIo() throws IOException {
+		out.reset();
+		ImageIO.write(image, "png", out);
+		return out.size();
+	}
+}
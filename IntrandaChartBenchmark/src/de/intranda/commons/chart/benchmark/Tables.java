@@ -0,0 +1,100 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.benchmark;
+
+import java.util.Random;
+
+import de.intranda.commons.chart.results.DataRow;
+import de.intranda.commons.chart.results.DataTable;
+
+/*************************************************************************************
+ * Test data for the benchmarks, the same parameters always give the same data
+ * 
+ * @version 18.10.2026
+ *************************************************************************************/
+final class Tables {
+
+	private Tables() {
+	}
+
+	/************************************************************************************
+	 * create the labels of the columns
+	 * 
+	 * @param columns number of columns
+	 * @return the labels, "column 0" to "column n-1"
+	 ************************************************************************************/
+	static String[] labels(int columns) {
+		String[] labels = new String[columns];
+		for (int i = 0; i < columns; i++) {
+			labels[i] = "column " + i;
+		}
+		return labels;
+	}
+
+	/************************************************************************************
+	 * create the values of a row like counts of a statistic
+	 * 
+	 * @param columns number of values
+	 * @param seed seed of the random values
+	 * @return values between 0 and 999
+	 ************************************************************************************/
+	static double[] values(int columns, long seed) {
+		Random random = new Random(seed);
+		double[] values = new double[columns];
+		for (int i = 0; i < columns; i++) {
+			values[i] = random.nextInt(1000);
+		}
+		return values;
+	}
+
+	/************************************************************************************
+	 * create a row that does not belong to a table yet
+	 * 
+	 * @param name the name of the row
+	 * @param labels the labels of the columns
+	 * @param values the values of the columns
+	 * @return the {@link DataRow}
+	 ************************************************************************************/
+	static DataRow row(String name, String[] labels, double[] values) {
+		DataRow row = new DataRow(name);
+		for (int i = 0; i < labels.length; i++) {
+			row.addValue(labels[i], values[i]);
+		}
+		return row;
+	}
+
+	/************************************************************************************
+	 * create a table with all columns in all rows
+	 * 
+	 * @param rows number of rows
+	 * @param columns number of columns
+	 * @return the {@link DataTable}
+	 ************************************************************************************/
+	static DataTable table(int rows, int columns) {
+		String[] labels = labels(columns);
+		DataTable table = new DataTable("benchmark");
+		table.setUnitLabel("count");
+		for (int r = 0; r < rows; r++) {
+			table.addDataRow(row("row " + r, labels, values(columns, r)));
+		}
+		return table;
+	}
+}
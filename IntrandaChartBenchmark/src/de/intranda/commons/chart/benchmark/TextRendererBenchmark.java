@@ -0,0 +1,98 @@
+/*
+ * This file is part of the intranda commons charting project.
+ * Visit the websites for more information. 
+ * 		- http://www.intranda.com 
+ * 		- http://code.google.com/p/intrandachart/
+ * 
+ * Copyright 2009, intranda software.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"?);
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS"? BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.intranda.commons.chart.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.intranda.commons.chart.renderer.HtmlTableRenderer;
+import de.intranda.commons.chart.renderer.StringRenderer;
+
+/*************************************************************************************
+ * Benchmarks for writing a table as HTML with the {@link HtmlTableRenderer} and as
+ * text with the {@link StringRenderer}
+ * 
+ * The renderers append to a {@link StringBuilder} that is reused, so the result
+ * counts only what the renderers allocate themselves.
+ * 
+ * @version 18.10.2026
+ *************************************************************************************/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TextRendererBenchmark {
+
+	@Param({ "10", "100" })
+	public int rows;
+
+	@Param({ "20", "1000" })
+	public int columns;
+
+	private HtmlTableRenderer htmlRenderer;
+	private StringRenderer stringRenderer;
+	private StringBuilder out;
+
+	@Setup
+	public void setUp() {
+		htmlRenderer = new HtmlTableRenderer();
+		htmlRenderer.setDataTable(Tables.table(rows, columns));
+		htmlRenderer.setFormatPattern("#,##0.00");
+		stringRenderer = new StringRenderer();
+		stringRenderer.setDataTable(Tables.table(rows, columns));
+		stringRenderer.setFormatPattern("#,##0.00");
+		out = new StringBuilder();
+	}
+
+	/************************************************************************************
+	 * write the table as HTML
+	 ************************************************************************************/
+	@Benchmark
+	public int htmlTable() throws IOException {
+		out.setLength(0);
+		htmlRenderer.renderTo(out);
+		return out.length();
+	}
+
+	/************************************************************************************
+	 * write the table as text
+	 ************************************************************************************/
+	@Benchmark
+	public int string() throws IOException {
+		out.setLength(0);
+		stringRenderer.renderTo(out);
+		return out.length();
+	}
+}